@@ -0,0 +1,120 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.config.DatabaseConfig;
+import com.ecommerce.config.SchemaManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+final class BenchmarkDatabase {
+    static final String[] CATEGORIES = {"Electronics", "Footwear", "Audio", "Clothing", "Home & Kitchen"};
+    static final String[] STATUSES = {"PENDING", "PROCESSING", "SHIPPED", "DELIVERED", "CANCELLED"};
+    // Large enough that createOrder benchmarks never run out of stock
+    static final int UNLIMITED_STOCK = 1_000_000_000;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkDatabase() {}
+
+    static void reset() {
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        } catch (SQLException e) {
+            throw new RuntimeException("Error resetting benchmark database", e);
+        }
+        new SchemaManager(DatabaseConfig.getDataSource()).migrate();
+    }
+
+    static void seedProducts(int count) {
+        String sql = "INSERT INTO products (name, description, price, stock, category) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = 1; i <= count; i++) {
+                stmt.setString(1, "Product " + i);
+                stmt.setString(2, "Benchmark product number " + i);
+                stmt.setBigDecimal(3, BigDecimal.valueOf(1 + (i % 1000), 0).add(new BigDecimal("0.99")));
+                stmt.setInt(4, UNLIMITED_STOCK);
+                stmt.setString(5, CATEGORIES[i % CATEGORIES.length]);
+                stmt.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error seeding products", e);
+        }
+    }
+
+    static void seedCustomers(int count) {
+        String sql = "INSERT INTO customers (name, email, phone, address) VALUES (?, ?, ?, ?)";
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = 1; i <= count; i++) {
+                stmt.setString(1, "Customer " + i);
+                stmt.setString(2, email(i));
+                stmt.setString(3, "+1-555-" + i);
+                stmt.setString(4, i + " Benchmark Street");
+                stmt.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error seeding customers", e);
+        }
+    }
+
+    // Orders get itemsPerOrder items each and cycle through every status
+    static void seedOrders(int count, int itemsPerOrder, int customerCount, int productCount) {
+        String orderSql = "INSERT INTO orders (id, customer_id, total_amount, status) VALUES (?, ?, ?, ?)";
+        String itemSql = "INSERT INTO order_items (order_id, product_id, quantity, unit_price, subtotal) " +
+                         "VALUES (?, ?, ?, ?, ?)";
+        BigDecimal unitPrice = new BigDecimal("10.00");
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement orderStmt = conn.prepareStatement(orderSql);
+             PreparedStatement itemStmt = conn.prepareStatement(itemSql)) {
+            conn.setAutoCommit(false);
+            for (int i = 1; i <= count; i++) {
+                orderStmt.setLong(1, i);
+                orderStmt.setLong(2, 1 + (i % customerCount));
+                orderStmt.setBigDecimal(3, unitPrice.multiply(BigDecimal.valueOf(itemsPerOrder)));
+                orderStmt.setString(4, STATUSES[i % STATUSES.length]);
+                orderStmt.addBatch();
+                for (int j = 0; j < itemsPerOrder; j++) {
+                    itemStmt.setLong(1, i);
+                    itemStmt.setLong(2, 1 + ((i + j) % productCount));
+                    itemStmt.setInt(3, 1);
+                    itemStmt.setBigDecimal(4, unitPrice);
+                    itemStmt.setBigDecimal(5, unitPrice);
+                    itemStmt.addBatch();
+                }
+                if (i % BATCH_SIZE == 0) {
+                    orderStmt.executeBatch();
+                    itemStmt.executeBatch();
+                }
+            }
+            orderStmt.executeBatch();
+            itemStmt.executeBatch();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE orders ALTER COLUMN id RESTART WITH " + (count + 1));
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error seeding orders", e);
+        }
+    }
+
+    static String email(int customerNumber) {
+        return "customer" + customerNumber + "@bench.example";
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.config.DatabaseConfig;
+import com.ecommerce.config.TransactionManager;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.impl.CustomerRepositoryImpl;
+import com.ecommerce.repository.impl.OrderItemRepositoryImpl;
+import com.ecommerce.repository.impl.OrderRepositoryImpl;
+import com.ecommerce.repository.impl.ProductRepositoryImpl;
+import com.ecommerce.service.OrderService;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.service.impl.CustomerServiceImpl;
+import com.ecommerce.service.impl.OrderServiceImpl;
+import com.ecommerce.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    static OrderService newOrderService() {
+        ProductRepository productRepository = new ProductRepositoryImpl();
+        ProductService productService = new ProductServiceImpl(productRepository);
+        return new OrderServiceImpl(new OrderRepositoryImpl(), new OrderItemRepositoryImpl(), productRepository,
+                productService, new CustomerServiceImpl(new CustomerRepositoryImpl()),
+                new TransactionManager(DatabaseConfig.getDataSource()));
+    }
+
+    @State(Scope.Benchmark)
+    public static class CreateOrderState {
+        @Param({"1", "5", "20", "100"})
+        public int itemCount;
+
+        @Param({"10000"})
+        public int productCount;
+
+        @Param({"1000"})
+        public int customerCount;
+
+        OrderService orderService;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            BenchmarkDatabase.reset();
+            BenchmarkDatabase.seedProducts(productCount);
+            BenchmarkDatabase.seedCustomers(customerCount);
+            orderService = newOrderService();
+        }
+
+        List<OrderItem> randomItems() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<OrderItem> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                OrderItem item = new OrderItem();
+                item.setProductId(1L + random.nextInt(productCount));
+                item.setQuantity(1 + random.nextInt(3));
+                items.add(item);
+            }
+            return items;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OrdersByStatusState {
+        @Param({"1000", "10000", "100000"})
+        public int orderCount;
+
+        @Param({"3"})
+        public int itemsPerOrder;
+
+        OrderService orderService;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            int customers = 1000;
+            int products = 1000;
+            BenchmarkDatabase.reset();
+            BenchmarkDatabase.seedProducts(products);
+            BenchmarkDatabase.seedCustomers(customers);
+            BenchmarkDatabase.seedOrders(orderCount, itemsPerOrder, customers, products);
+            orderService = newOrderService();
+        }
+    }
+
+    @Benchmark
+    public Order createOrder(CreateOrderState state) {
+        long customerId = 1L + ThreadLocalRandom.current().nextInt(state.customerCount);
+        return state.orderService.createOrder(customerId, state.randomItems());
+    }
+
+    @Benchmark
+    public List<Order> getOrdersByStatus(OrdersByStatusState state) {
+        return state.orderService.getOrdersByStatus("SHIPPED");
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.model.Customer;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.CustomerRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.impl.CustomerRepositoryImpl;
+import com.ecommerce.repository.impl.ProductRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param({"1000", "100000"})
+    public int productCount;
+
+    @Param({"1000", "100000"})
+    public int customerCount;
+
+    private ProductRepository productRepository;
+    private CustomerRepository customerRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkDatabase.reset();
+        BenchmarkDatabase.seedProducts(productCount);
+        BenchmarkDatabase.seedCustomers(customerCount);
+        productRepository = new ProductRepositoryImpl();
+        customerRepository = new CustomerRepositoryImpl();
+    }
+
+    @Benchmark
+    public Optional<Product> productFindById() {
+        return productRepository.findById(1L + ThreadLocalRandom.current().nextInt(productCount));
+    }
+
+    @Benchmark
+    public List<Product> productFindByPriceRange() {
+        // Seeded prices are spread over 1.99 .. 1000.99, so a 10.00 window selects about 1% of the table
+        double min = 1 + ThreadLocalRandom.current().nextInt(990);
+        return productRepository.findByPriceRange(min, min + 10);
+    }
+
+    @Benchmark
+    public Optional<Customer> customerFindByEmail() {
+        return customerRepository.findByEmail(BenchmarkDatabase.email(1 + ThreadLocalRandom.current().nextInt(customerCount)));
+    }
+}
@@ -0,0 +1,132 @@
+package com.ecommerce.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public class LruCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    // Bumped on every invalidation so loads that raced with a write are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public LruCache(int maxSize, Duration ttl) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public Optional<V> get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            if (ttlNanos > 0 && entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            hits.incrementAndGet();
+            return Optional.of(entry.value);
+        }
+    }
+
+    public Optional<V> getOrLoad(K key, Function<K, Optional<V>> loader) {
+        Optional<V> cached = get(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long loadGeneration = generation.get();
+        Optional<V> loaded = loader.apply(key);
+        loaded.ifPresent(value -> putIfCurrent(key, value, loadGeneration));
+        return loaded;
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    // Caches a value read from the store unless an invalidation happened since loadGeneration
+    public void putIfCurrent(K key, V value, long loadGeneration) {
+        synchronized (entries) {
+            if (generation.get() != loadGeneration) {
+                return;
+            }
+            put(key, value);
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            long expiresAt = System.nanoTime() + ttlNanos;
+            entries.put(key, new Entry<>(value, expiresAt));
+            if (entries.size() > maxSize) {
+                Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll(Collection<K> keys) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            for (K key : keys) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), expirations.get(), size);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+
+        Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.config;
+
+public class BootstrapReport {
+    private final boolean schemaCreated;
+    private final boolean restoredFromSnapshot;
+    private final int schemaVersion;
+    private final long openMillis;
+    private final long firstQueryMillis;
+    private final long sinceJvmStartMillis;
+
+    public BootstrapReport(boolean schemaCreated, boolean restoredFromSnapshot, int schemaVersion, long openMillis,
+                           long firstQueryMillis, long sinceJvmStartMillis) {
+        this.schemaCreated = schemaCreated;
+        this.restoredFromSnapshot = restoredFromSnapshot;
+        this.schemaVersion = schemaVersion;
+        this.openMillis = openMillis;
+        this.firstQueryMillis = firstQueryMillis;
+        this.sinceJvmStartMillis = sinceJvmStartMillis;
+    }
+
+    // True when at least one migration ran during this startup
+    public boolean isSchemaCreated() {
+        return schemaCreated;
+    }
+
+    public boolean isRestoredFromSnapshot() {
+        return restoredFromSnapshot;
+    }
+
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    // Time to get the first connection, which is when H2 opens (and for files, recovers) the store
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    // Time from the start of bootstrap until the first query against an application table returned
+    public long getFirstQueryMillis() {
+        return firstQueryMillis;
+    }
+
+    public long getSinceJvmStartMillis() {
+        return sinceJvmStartMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BootstrapReport{" +
+                "schemaCreated=" + schemaCreated +
+                ", restoredFromSnapshot=" + restoredFromSnapshot +
+                ", schemaVersion=" + schemaVersion +
+                ", openMillis=" + openMillis +
+                ", firstQueryMillis=" + firstQueryMillis +
+                ", sinceJvmStartMillis=" + sinceJvmStartMillis +
+                '}';
+    }
+}
@@ -0,0 +1,144 @@
+package com.ecommerce.config;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BoundedExecutors {
+
+    private BoundedExecutors() {}
+
+    // Runs at most maxConcurrency tasks with up to queueCapacity waiting; when full, submitters block for
+    // submitTimeoutMillis and then get a RejectedExecutionException. Uses virtual threads on JDK 21+.
+    public static ExecutorService create(String name, int maxConcurrency, int queueCapacity, long submitTimeoutMillis) {
+        if (maxConcurrency < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Concurrency and queue capacity must be greater than zero");
+        }
+        ExecutorService virtualThreads = newVirtualThreadExecutor();
+        if (virtualThreads != null) {
+            return new PermitExecutor(virtualThreads, maxConcurrency, queueCapacity, submitTimeoutMillis);
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreads(name), blockingSubmit(submitTimeoutMillis));
+        executor.prestartAllCoreThreads();
+        return executor;
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (!virtualThreadsAvailable()) {
+            return null;
+        }
+        try {
+            // Looked up reflectively because the project still targets Java 11
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory namedThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static RejectedExecutionHandler blockingSubmit(long timeoutMillis) {
+        return (task, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor is shut down");
+            }
+            try {
+                if (!executor.getQueue().offer(task, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new RejectedExecutionException("Queue full for " + timeoutMillis + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for queue space", e);
+            }
+        };
+    }
+
+    // Virtual threads are unbounded by themselves, so permits cap running plus waiting tasks
+    private static final class PermitExecutor extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final Semaphore running;
+        private final Semaphore admitted;
+        private final long submitTimeoutMillis;
+
+        PermitExecutor(ExecutorService delegate, int maxConcurrency, int queueCapacity, long submitTimeoutMillis) {
+            this.delegate = delegate;
+            this.running = new Semaphore(maxConcurrency);
+            this.admitted = new Semaphore(maxConcurrency + queueCapacity);
+            this.submitTimeoutMillis = submitTimeoutMillis;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            try {
+                if (!admitted.tryAcquire(submitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new RejectedExecutionException("Queue full for " + submitTimeoutMillis + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for queue space", e);
+            }
+            try {
+                delegate.execute(() -> {
+                    running.acquireUninterruptibly();
+                    try {
+                        command.run();
+                    } finally {
+                        running.release();
+                        admitted.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                admitted.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.ecommerce.config;
+
+import com.ecommerce.cache.CacheStats;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class ConnectionPool implements DataSource, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final PoolConfig config;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+    private PrintWriter logWriter;
+
+    public ConnectionPool(PoolConfig config) {
+        config.validate();
+        this.config = config;
+        this.permits = new Semaphore(config.getMaximumPoolSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fillToMinimum();
+        long interval = config.getHousekeepingIntervalMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getAcquireTimeoutMillis());
+        try {
+            if (!permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw timeout();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pooled = borrow(deadline);
+            pooled.markBorrowed(config.getLeakDetectionThresholdMillis() > 0);
+            borrowed.add(pooled);
+            return pooled.newProxy();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections use the configured credentials");
+    }
+
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public CacheStats getStatementCacheStats() {
+        int size = 0;
+        for (PooledConnection pooled : idle) {
+            size += pooled.cachedStatements();
+        }
+        for (PooledConnection pooled : borrowed) {
+            size += pooled.cachedStatements();
+        }
+        return new CacheStats(statementCounters.hits.sum(), statementCounters.misses.sum(),
+                statementCounters.evictions.sum(), 0, size);
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    private PooledConnection borrow(long deadline) throws SQLException {
+        while (true) {
+            PooledConnection pooled = idle.pollFirst();
+            if (pooled == null) {
+                pooled = tryCreate();
+            }
+            if (pooled == null) {
+                // Every physical connection is accounted for; one is on its way back to the idle deque
+                long remaining = deadline - System.nanoTime();
+                try {
+                    pooled = remaining > 0 ? idle.pollFirst(remaining, TimeUnit.NANOSECONDS) : null;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a connection", e);
+                }
+                if (pooled == null) {
+                    throw timeout();
+                }
+            }
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long sinceLastUse = System.nanoTime() - pooled.lastUsedNanos;
+        if (pooled.fresh || sinceLastUse < TimeUnit.MILLISECONDS.toNanos(config.getValidationIntervalMillis())) {
+            pooled.fresh = false;
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection tryCreate() throws SQLException {
+        while (true) {
+            int total = totalConnections.get();
+            if (total >= config.getMaximumPoolSize()) {
+                return null;
+            }
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                break;
+            }
+        }
+        try {
+            Connection physical = DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
+            if (config.isReadOnly()) {
+                physical.setReadOnly(true);
+            }
+            return new PooledConnection(physical);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            pooled.reset();
+            pooled.lastUsedNanos = System.nanoTime();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Discarding connection that could not be reset", e);
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        if (pooled.statementCache != null) {
+            pooled.statementCache.close();
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing physical connection", e);
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void evictIdle() {
+        long idleTimeout = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+        if (idleTimeout <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        // Oldest connections sit at the tail because returns are pushed to the head
+        Iterator<PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext() && totalConnections.get() > config.getMinimumIdle()) {
+            PooledConnection pooled = iterator.next();
+            if (now - pooled.lastUsedNanos > idleTimeout && idle.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && idle.size() < config.getMinimumIdle()) {
+            try {
+                PooledConnection pooled = tryCreate();
+                if (pooled == null) {
+                    return;
+                }
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Could not create idle connection", e);
+                return;
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (PooledConnection pooled : borrowed) {
+            if (!pooled.leakReported && now - pooled.borrowedAtNanos > TimeUnit.MILLISECONDS.toNanos(threshold)) {
+                pooled.leakReported = true;
+                LOGGER.log(Level.WARNING, "Connection held for more than " + threshold
+                        + " ms without being returned, possible leak", pooled.borrowTrace);
+            }
+        }
+    }
+
+    private SQLTransientConnectionException timeout() {
+        return new SQLTransientConnectionException("Timed out after " + config.getAcquireTimeoutMillis()
+                + " ms waiting for a connection (active=" + borrowed.size() + ", idle=" + idle.size() + ")");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        config.setAcquireTimeoutMillis(TimeUnit.SECONDS.toMillis(seconds));
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return (int) TimeUnit.MILLISECONDS.toSeconds(config.getAcquireTimeoutMillis());
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return LOGGER;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long lastUsedNanos = System.nanoTime();
+        private volatile long borrowedAtNanos;
+        private volatile Throwable borrowTrace;
+        private volatile boolean leakReported;
+        private boolean fresh = true;
+        private boolean autoCommitChanged;
+        private boolean readOnlyChanged;
+        private boolean isolationChanged;
+        private final int defaultIsolation;
+
+        PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultIsolation = physical.getTransactionIsolation();
+            this.statementCache = config.getStatementCacheSize() > 0
+                    ? new StatementCache(physical, config.getStatementCacheSize(), statementCounters)
+                    : null;
+        }
+
+        int cachedStatements() {
+            return statementCache == null ? 0 : statementCache.size();
+        }
+
+        void markBorrowed(boolean captureTrace) {
+            borrowedAtNanos = System.nanoTime();
+            borrowTrace = captureTrace ? new Throwable("Connection borrowed here") : null;
+            leakReported = false;
+        }
+
+        void reset() throws SQLException {
+            if (statementCache != null) {
+                statementCache.release();
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+            }
+            if (autoCommitChanged) {
+                physical.setAutoCommit(true);
+                autoCommitChanged = false;
+            }
+            if (readOnlyChanged) {
+                physical.setReadOnly(config.isReadOnly());
+                readOnlyChanged = false;
+            }
+            if (isolationChanged) {
+                physical.setTransactionIsolation(defaultIsolation);
+                isolationChanged = false;
+            }
+            physical.clearWarnings();
+        }
+
+        Connection newProxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(this));
+        }
+    }
+
+    // One handle per borrow so a stale reference cannot touch the connection after it was returned
+    private final class Handle implements InvocationHandler {
+        private PooledConnection pooled;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (pooled != null) {
+                        PooledConnection returning = pooled;
+                        pooled = null;
+                        release(returning);
+                    }
+                    return null;
+                case "isClosed":
+                    return pooled == null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + (pooled == null ? "closed" : pooled.physical) + "]";
+                default:
+                    break;
+            }
+            if (pooled == null) {
+                throw new SQLException("Connection is closed");
+            }
+            switch (name) {
+                case "setAutoCommit":
+                    pooled.autoCommitChanged = true;
+                    break;
+                case "setReadOnly":
+                    pooled.readOnlyChanged = true;
+                    break;
+                case "setTransactionIsolation":
+                    pooled.isolationChanged = true;
+                    break;
+                case "prepareStatement":
+                    if (pooled.statementCache != null) {
+                        Object cached = pooled.statementCache.prepare(method, args, (Connection) proxy);
+                        if (cached != null) {
+                            return cached;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.config;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Brings a database up to the latest migration. A store that is already current only pays for opening it
+// and reading schema_version; an empty one is loaded from the snapshot, when one is configured, before
+// any remaining migrations run.
+public class DatabaseBootstrap {
+    private final DataSource dataSource;
+    private final SchemaManager schemaManager;
+    private final Path snapshot;
+
+    public DatabaseBootstrap(DataSource dataSource, SchemaManager schemaManager) {
+        this(dataSource, schemaManager, null);
+    }
+
+    public DatabaseBootstrap(DataSource dataSource, SchemaManager schemaManager, Path snapshot) {
+        this.dataSource = dataSource;
+        this.schemaManager = schemaManager;
+        this.snapshot = snapshot;
+    }
+
+    public BootstrapReport start() {
+        long started = System.nanoTime();
+        
+        try (Connection conn = dataSource.getConnection()) {
+            conn.isValid(0);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error opening database", e);
+        }
+        long openMillis = (System.nanoTime() - started) / 1_000_000;
+        
+        boolean restored = false;
+        if (snapshot != null && Files.isRegularFile(snapshot) && schemaManager.currentVersion() == 0) {
+            schemaManager.restoreSnapshot(snapshot);
+            restored = true;
+        }
+        boolean schemaCreated = !schemaManager.migrate().isEmpty();
+        
+        // Reading schema_version touches the store, so this covers more than just opening it
+        int schemaVersion = schemaManager.currentVersion();
+        long firstQueryMillis = (System.nanoTime() - started) / 1_000_000;
+        long sinceJvmStartMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        
+        return new BootstrapReport(schemaCreated, restored, schemaVersion, openMillis, firstQueryMillis, sinceJvmStartMillis);
+    }
+}
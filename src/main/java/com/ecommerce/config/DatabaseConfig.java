@@ -1,13 +1,17 @@
 package com.ecommerce.config;
 
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConfig {
-    private static final String URL = "jdbc:h2:mem:ecommerce;DB_CLOSE_DELAY=-1";
-    private static final String USER = "sa";
-    private static final String PASSWORD = "";
+    private static final String MEMORY_URL = "jdbc:h2:mem:ecommerce;DB_CLOSE_DELAY=-1";
+
+    private static volatile ConnectionPool dataSource;
+    private static volatile ConnectionPool readPool;
+    private static volatile ReadRoutingDataSource readDataSource;
 
     static {
         try {
@@ -17,8 +21,108 @@ public class DatabaseConfig {
         }
     }
 
+    public static DataSource getDataSource() {
+        ConnectionPool pool = dataSource;
+        if (pool == null) {
+            synchronized (DatabaseConfig.class) {
+                pool = dataSource;
+                if (pool == null) {
+                    pool = new ConnectionPool(defaultPoolConfig());
+                    dataSource = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    // Where repositories send their reads: a separate read-only pool, over ecommerce.db.read.url when set
+    // (e.g. a local H2 copy) and the primary database otherwise
+    public static DataSource getReadDataSource() {
+        ReadRoutingDataSource routing = readDataSource;
+        if (routing == null) {
+            synchronized (DatabaseConfig.class) {
+                routing = readDataSource;
+                if (routing == null) {
+                    DataSource primary = getDataSource();
+                    readPool = new ConnectionPool(readPoolConfig());
+                    routing = new ReadRoutingDataSource(primary, readPool);
+                    readDataSource = routing;
+                }
+            }
+        }
+        return routing;
+    }
+
+    public static PoolConfig readPoolConfig() {
+        PoolConfig config = defaultPoolConfig();
+        String url = System.getProperty("ecommerce.db.read.url");
+        if (url != null && !url.trim().isEmpty()) {
+            config.setUrl(url);
+        }
+        config.setMinimumIdle(Integer.getInteger("ecommerce.pool.read.minIdle", config.getMinimumIdle()));
+        config.setMaximumPoolSize(Integer.getInteger("ecommerce.pool.read.maxSize", config.getMaximumPoolSize()));
+        config.setReadOnly(true);
+        return config;
+    }
+
+    public static PoolConfig defaultPoolConfig() {
+        PoolConfig config = new PoolConfig(databaseUrl(), System.getProperty("ecommerce.db.user", "sa"),
+                System.getProperty("ecommerce.db.password", ""));
+        config.setMinimumIdle(Integer.getInteger("ecommerce.pool.minIdle", 2));
+        config.setMaximumPoolSize(Integer.getInteger("ecommerce.pool.maxSize", 10));
+        config.setAcquireTimeoutMillis(Long.getLong("ecommerce.pool.acquireTimeoutMs", 30_000L));
+        config.setIdleTimeoutMillis(Long.getLong("ecommerce.pool.idleTimeoutMs", 600_000L));
+        config.setLeakDetectionThresholdMillis(Long.getLong("ecommerce.pool.leakDetectionMs", 0L));
+        config.setStatementCacheSize(Integer.getInteger("ecommerce.pool.statementCacheSize", 64));
+        return config;
+    }
+
+    // An explicit ecommerce.db.url wins; otherwise ecommerce.db.file switches from the in-memory database to a
+    // file-backed MVStore (e.g. -Decommerce.db.file=./data/ecommerce) tuned by the other ecommerce.db.* settings
+    public static String databaseUrl() {
+        String url = System.getProperty("ecommerce.db.url");
+        if (url != null && !url.trim().isEmpty()) {
+            return url;
+        }
+        String file = System.getProperty("ecommerce.db.file");
+        if (file == null || file.trim().isEmpty()) {
+            return MEMORY_URL;
+        }
+        return fileUrl(file.trim(),
+                Integer.getInteger("ecommerce.db.cacheSizeKb", 65_536),
+                Integer.getInteger("ecommerce.db.pageSize", 0),
+                Boolean.getBoolean("ecommerce.db.compress"),
+                Integer.getInteger("ecommerce.db.writeDelayMs", 500));
+    }
+
+    // pageSize 0 keeps H2's default; writeDelayMillis bounds how much committed work a crash can lose
+    public static String fileUrl(String path, int cacheSizeKb, int pageSize, boolean compress, int writeDelayMillis) {
+        if (cacheSizeKb <= 0) {
+            throw new IllegalArgumentException("Cache size must be greater than zero");
+        }
+        if (pageSize < 0 || writeDelayMillis < 0) {
+            throw new IllegalArgumentException("Page size and write delay cannot be negative");
+        }
+        StringBuilder url = new StringBuilder("jdbc:h2:file:").append(path);
+        url.append(";CACHE_SIZE=").append(cacheSizeKb);
+        if (pageSize > 0) {
+            url.append(";PAGE_SIZE=").append(pageSize);
+        }
+        if (compress) {
+            url.append(";COMPRESS=TRUE");
+        }
+        url.append(";WRITE_DELAY=").append(writeDelayMillis);
+        return url.toString();
+    }
+
+    // Optional SCRIPT dump (ecommerce.db.snapshot) used to populate an empty database on startup
+    public static Path snapshotPath() {
+        String snapshot = System.getProperty("ecommerce.db.snapshot");
+        return snapshot == null || snapshot.trim().isEmpty() ? null : Paths.get(snapshot.trim());
+    }
+
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getDataSource().getConnection();
     }
 
     public static void closeConnection(Connection connection) {
@@ -30,4 +134,16 @@ public class DatabaseConfig {
             }
         }
     }
+
+    public static synchronized void shutdown() {
+        if (readPool != null) {
+            readPool.close();
+            readPool = null;
+            readDataSource = null;
+        }
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package com.ecommerce.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Scripts are classpath resources (e.g. "db/create-tables.sql"), so they ship inside the jar and do not
+// depend on the working directory
+public class Migration {
+    private final int version;
+    private final String description;
+    private final String script;
+    private final List<String> extraStatements;
+
+    public Migration(int version, String description, String script) {
+        this(version, description, script, Collections.emptyList());
+    }
+
+    // Extra statements are built by the caller (e.g. per-shard settings) and run after the script, in the same
+    // batch, before the version is recorded
+    public Migration(int version, String description, String script, List<String> extraStatements) {
+        if (version <= 0) {
+            throw new IllegalArgumentException("Migration version must be greater than zero");
+        }
+        this.version = version;
+        this.description = description;
+        this.script = script;
+        this.extraStatements = Collections.unmodifiableList(new ArrayList<>(extraStatements));
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getScript() {
+        return script;
+    }
+
+    public String readScript() {
+        return readResource(script);
+    }
+
+    public List<String> getExtraStatements() {
+        return extraStatements;
+    }
+
+    static String readResource(String resource) {
+        try (InputStream in = Migration.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new RuntimeException("Script not found on the classpath: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading script: " + resource, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Migration{" +
+                "version=" + version +
+                ", description='" + description + '\'' +
+                ", script=" + script +
+                '}';
+    }
+}
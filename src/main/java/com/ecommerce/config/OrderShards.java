@@ -0,0 +1,202 @@
+package com.ecommerce.config;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// The databases orders are split across, keyed by customer. Order and item ids carry their shard in the low
+// SHARD_BITS bits (each shard's identity columns start at MAX_SHARDS + shard and step by MAX_SHARDS), so any
+// id routes without a lookup and ids stay unique and roughly time-ordered across shards.
+public class OrderShards implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(OrderShards.class.getName());
+
+    public static final int SHARD_BITS = 10;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    private final List<DataSource> shards;
+    private final List<ConnectionPool> ownedPools;
+    private final ExecutorService executor;
+    private final ThreadLocal<Map<Integer, Connection>> enlisted = new ThreadLocal<>();
+
+    public OrderShards(List<DataSource> shards) {
+        this(shards, Collections.emptyList());
+    }
+
+    private OrderShards(List<DataSource> shards, List<ConnectionPool> ownedPools) {
+        if (shards.isEmpty() || shards.size() > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + MAX_SHARDS);
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.ownedPools = ownedPools;
+        this.executor = BoundedExecutors.create("order-shards", shards.size() * 2, shards.size() * 64, 5_000);
+    }
+
+    // One pool per URL, configured like the primary
+    public static OrderShards fromUrls(List<String> urls) {
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (String url : urls) {
+            PoolConfig config = DatabaseConfig.defaultPoolConfig();
+            config.setUrl(url);
+            pools.add(new ConnectionPool(config));
+        }
+        return new OrderShards(new ArrayList<>(pools), pools);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    public int shardForCustomer(Long customerId) {
+        if (customerId == null) {
+            throw new IllegalArgumentException("Customer ID cannot be null");
+        }
+        // Mix first so consecutive customer ids do not fill the shards in lock step
+        return Math.floorMod(Long.hashCode(customerId * 0x9E3779B97F4A7C15L), shards.size());
+    }
+
+    public static int shardOf(long id) {
+        return (int) (id & (MAX_SHARDS - 1));
+    }
+
+    // False for ids that could not have been issued by these shards, which callers treat as not found
+    public boolean isShardedId(Long id) {
+        return id != null && id >= MAX_SHARDS && shardOf(id) < shards.size();
+    }
+
+    // Creates the order tables on every shard and points their identity columns at the shard's id slot
+    public void initializeSchema() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            // The identity settings are part of V1, so a shard is never recorded as created without them
+            long firstId = MAX_SHARDS + shard;
+            List<String> identities = new ArrayList<>();
+            for (String table : new String[] {"orders", "order_items"}) {
+                identities.add("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + firstId +
+                        " SET INCREMENT BY " + MAX_SHARDS);
+            }
+            List<Migration> migrations = Arrays.asList(
+                    new Migration(1, "Order shard", "db/create-order-shard.sql", identities),
+                    new Migration(2, "Order item category", "db/add-order-item-category.sql"));
+            new SchemaManager(shards.get(shard), migrations).migrate();
+        }
+    }
+
+    // Runs the query on every shard in parallel and returns the results in shard order
+    public <T> List<T> scatter(IntFunction<T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(target), executor));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    // Work handed a shard connection inside a TransactionManager transaction joins it: the connection stays
+    // open and commits just before the main database does, or rolls back with it. Shards commit one at a time,
+    // so a failure part way through a commit spanning several of them can leave the earlier ones committed.
+    public <T> T inTransaction(int shard, Function<Connection, T> work) {
+        if (!TransactionManager.isActive()) {
+            try (Connection conn = shards.get(shard).getConnection()) {
+                return work.apply(conn);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error connecting to order shard: " + shard, e);
+            }
+        }
+        
+        Map<Integer, Connection> connections = enlisted.get();
+        if (connections == null) {
+            connections = new TreeMap<>();
+            enlisted.set(connections);
+            TransactionManager.beforeCommit(this::commitEnlisted);
+            TransactionManager.afterRollback(this::rollbackEnlisted);
+        }
+        Connection conn = connections.get(shard);
+        if (conn == null) {
+            try {
+                conn = shards.get(shard).getConnection();
+                conn.setAutoCommit(false);
+            } catch (SQLException e) {
+                closeQuietly(conn);
+                throw new RuntimeException("Error connecting to order shard: " + shard, e);
+            }
+            connections.put(shard, conn);
+        }
+        return work.apply(conn);
+    }
+
+    private void commitEnlisted() {
+        Map<Integer, Connection> connections = enlisted.get();
+        for (Map.Entry<Integer, Connection> entry : connections.entrySet()) {
+            try {
+                entry.getValue().commit();
+            } catch (SQLException e) {
+                throw new RuntimeException("Error committing order shard: " + entry.getKey(), e);
+            }
+        }
+        enlisted.remove();
+        for (Connection conn : connections.values()) {
+            closeQuietly(conn);
+        }
+    }
+
+    private void rollbackEnlisted() {
+        Map<Integer, Connection> connections = enlisted.get();
+        if (connections == null) {
+            return;
+        }
+        enlisted.remove();
+        for (Map.Entry<Integer, Connection> entry : connections.entrySet()) {
+            try {
+                entry.getValue().rollback();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Error rolling back order shard: " + entry.getKey(), e);
+            }
+            closeQuietly(entry.getValue());
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error closing shard connection", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        for (ConnectionPool pool : ownedPools) {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.ecommerce.config;
+
+public class PoolConfig {
+    private String url;
+    private String user;
+    private String password;
+    private int minimumIdle = 2;
+    private int maximumPoolSize = 10;
+    private long acquireTimeoutMillis = 30_000;
+    private int validationTimeoutSeconds = 5;
+    private long validationIntervalMillis = 500;
+    private long idleTimeoutMillis = 600_000;
+    private long leakDetectionThresholdMillis = 0;
+    private long housekeepingIntervalMillis = 30_000;
+    private int statementCacheSize = 64;
+    private boolean readOnly;
+
+    public PoolConfig() {}
+
+    public PoolConfig(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    public void validate() {
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException("Pool url cannot be empty");
+        }
+        if (maximumPoolSize < 1) {
+            throw new IllegalArgumentException("Maximum pool size must be at least 1");
+        }
+        if (minimumIdle < 0 || minimumIdle > maximumPoolSize) {
+            throw new IllegalArgumentException("Minimum idle must be between 0 and maximum pool size");
+        }
+        if (acquireTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Acquire timeout must be greater than zero");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative");
+        }
+        if (housekeepingIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Housekeeping interval must be greater than zero");
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(int minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public long getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    // Connections used more recently than this are handed out without an isValid() round trip
+    public void setValidationIntervalMillis(long validationIntervalMillis) {
+        this.validationIntervalMillis = validationIntervalMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    // 0 disables leak detection
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    public long getHousekeepingIntervalMillis() {
+        return housekeepingIntervalMillis;
+    }
+
+    public void setHousekeepingIntervalMillis(long housekeepingIntervalMillis) {
+        this.housekeepingIntervalMillis = housekeepingIntervalMillis;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    // Prepared statements cached per pooled connection; 0 disables the cache
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    // Marks every pooled connection read-only; H2 does not enforce the flag, so a replica URL should enforce it
+    // itself where that matters (e.g. ACCESS_MODE_DATA=r on a file copy)
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.config;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+// The data source repositories read through. Reads go to the replica pool so browsing never waits for a
+// connection behind checkout writes; code that must see its own writes wraps the reads in onPrimary().
+public class ReadRoutingDataSource implements DataSource {
+    private static final ThreadLocal<Integer> PRIMARY_DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    public ReadRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    // Sends every read made on this thread while the action runs to the primary; calls nest
+    public static <T> T onPrimary(Supplier<T> action) {
+        int depth = PRIMARY_DEPTH.get();
+        PRIMARY_DEPTH.set(depth + 1);
+        try {
+            return action.get();
+        } finally {
+            if (depth == 0) {
+                PRIMARY_DEPTH.remove();
+            } else {
+                PRIMARY_DEPTH.set(depth);
+            }
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PRIMARY_DEPTH.get() > 0;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return current().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return current().getConnection(username, password);
+    }
+
+    private DataSource current() {
+        return isPinnedToPrimary() ? primary : replica;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return replica.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        replica.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        replica.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return replica.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return replica.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
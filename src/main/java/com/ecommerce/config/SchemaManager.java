@@ -0,0 +1,208 @@
+package com.ecommerce.config;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Applies numbered migration scripts in order and records each one in schema_version, so a database
+// that is already current costs a single query at startup.
+public class SchemaManager {
+    private static final String VERSION_TABLE_SQL = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY, description VARCHAR(255), applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    private final DataSource dataSource;
+    private final List<Migration> migrations;
+
+    public SchemaManager(DataSource dataSource) {
+        this(dataSource, defaultMigrations());
+    }
+
+    public SchemaManager(DataSource dataSource, List<Migration> migrations) {
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).getVersion() <= migrations.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Migrations must be in ascending version order: " + migrations.get(i));
+            }
+        }
+        this.dataSource = dataSource;
+        this.migrations = Collections.unmodifiableList(new ArrayList<>(migrations));
+    }
+
+    // V1 is the original create-tables script; it only uses IF NOT EXISTS, so it also adopts databases
+    // that were created before versioning
+    public static List<Migration> defaultMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        migrations.add(new Migration(1, "Initial schema", "db/create-tables.sql"));
+        migrations.add(new Migration(2, "Order item category", "db/add-order-item-category.sql"));
+        return migrations;
+    }
+
+    public List<Migration> getMigrations() {
+        return migrations;
+    }
+
+    public int currentVersion() {
+        try (Connection conn = dataSource.getConnection()) {
+            return currentVersion(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading schema version", e);
+        }
+    }
+
+    public int latestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    // Returns the migrations applied by this call, which is empty when the schema was already current
+    public List<Migration> migrate() {
+        List<Migration> applied = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection()) {
+            int current = currentVersion(conn);
+            if (current >= latestVersion()) {
+                return applied;
+            }
+            
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(VERSION_TABLE_SQL);
+            }
+            for (Migration migration : migrations) {
+                if (migration.getVersion() > current) {
+                    apply(conn, migration);
+                    applied.add(migration);
+                }
+            }
+            
+            return applied;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error migrating schema", e);
+        }
+    }
+
+    // Runs a data script (e.g. seed data) as one batch in one transaction, without recording a version
+    public int runScript(String resource) {
+        List<String> statements = statementsIn(Migration.readResource(resource));
+        
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                executeBatch(conn, statements);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+            return statements.size();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error executing script: " + resource, e);
+        }
+    }
+
+    // Loads a SCRIPT dump into an empty database, which is much cheaper than replaying migrations and seed
+    // data statement by statement. Migrations newer than the snapshot still apply on the next migrate().
+    public void restoreSnapshot(Path snapshot) {
+        if (!Files.isRegularFile(snapshot)) {
+            throw new IllegalArgumentException("Snapshot not found: " + snapshot);
+        }
+        
+        try (Connection conn = dataSource.getConnection()) {
+            if (currentVersion(conn) > 0) {
+                throw new IllegalArgumentException("Cannot restore a snapshot over an existing schema");
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("RUNSCRIPT FROM " + quote(snapshot) + compression(snapshot));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error restoring snapshot: " + snapshot, e);
+        }
+    }
+
+    // A ".zip" file name writes a compressed snapshot
+    public void writeSnapshot(Path snapshot) {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("SCRIPT TO " + quote(snapshot) + compression(snapshot));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error writing snapshot: " + snapshot, e);
+        }
+    }
+
+    // H2 commits DDL implicitly, so a schema migration that fails part way can leave its earlier statements
+    // behind; scripts stay rerunnable (IF NOT EXISTS) and the version row is only written once all of them ran
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        List<String> statements = statementsIn(migration.readScript());
+        statements.addAll(migration.getExtraStatements());
+        
+        conn.setAutoCommit(false);
+        try {
+            executeBatch(conn, statements);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                stmt.setInt(1, migration.getVersion());
+                stmt.setString(2, migration.getDescription());
+                stmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw new RuntimeException("Error applying migration " + migration.getVersion() + ": " + migration.getScript(), e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (ResultSet tables = conn.getMetaData().getTables(null, null, "SCHEMA_VERSION", new String[] {"TABLE"})) {
+            if (!tables.next()) {
+                return 0;
+            }
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void executeBatch(Connection conn, List<String> statements) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.addBatch(sql);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Statements end with ';' at the end of a line; '--' lines are comments
+    static List<String> statementsIn(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+        for (String line : script.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("--")) {
+                continue;
+            }
+            sql.append(line).append(' ');
+            if (line.endsWith(";")) {
+                statements.add(sql.toString().trim());
+                sql.setLength(0);
+            }
+        }
+        return statements;
+    }
+
+    private static String quote(Path path) {
+        return "'" + path.toString().replace("'", "''") + "'";
+    }
+
+    private static String compression(Path path) {
+        return path.toString().endsWith(".zip") ? " COMPRESSION ZIP" : "";
+    }
+}
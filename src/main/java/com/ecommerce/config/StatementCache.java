@@ -0,0 +1,218 @@
+package com.ecommerce.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Per-physical-connection LRU of prepared statements; only touched by the thread that borrowed the connection
+class StatementCache {
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    private final Connection physical;
+    private final int maxSize;
+    private final Counters counters;
+    private final LinkedHashMap<Key, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection physical, int maxSize, Counters counters) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.counters = counters;
+    }
+
+    // Returns a statement for the given prepareStatement(...) call, or null if the call is not cacheable
+    PreparedStatement prepare(Method method, Object[] args, Connection owner) throws SQLException {
+        Key key = Key.of(method, args);
+        if (key == null) {
+            return null;
+        }
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            counters.hits.increment();
+            return cached.checkout(owner);
+        }
+        counters.misses.increment();
+        PreparedStatement statement = invokePrepare(method, args);
+        if (cached != null) {
+            // Same SQL is already open on this connection, so hand out a plain statement
+            return statement;
+        }
+        cached = new CachedStatement(statement);
+        statements.put(key, cached);
+        if (statements.size() > maxSize) {
+            Iterator<CachedStatement> eldest = statements.values().iterator();
+            CachedStatement evicted = eldest.next();
+            eldest.remove();
+            counters.evictions.increment();
+            evicted.evicted = true;
+            if (!evicted.inUse) {
+                closeQuietly(evicted.statement);
+            }
+        }
+        return cached.checkout(owner);
+    }
+
+    // Called when the connection goes back to the pool; statements left open by the borrower are reclaimed
+    void release() {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                cached.checkin();
+            }
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    void close() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    private PreparedStatement invokePrepare(Method method, Object[] args) throws SQLException {
+        try {
+            return (PreparedStatement) method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+            Throwable target = e.getTargetException();
+            if (target instanceof SQLException) {
+                throw (SQLException) target;
+            }
+            throw new SQLException("Failed to prepare statement", target);
+        } catch (IllegalAccessException e) {
+            throw new SQLException("Failed to prepare statement", e);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing cached statement", e);
+        }
+    }
+
+    static final class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final List<Object> options;
+
+        private Key(String sql, List<Object> options) {
+            this.sql = sql;
+            this.options = options;
+        }
+
+        static Key of(Method method, Object[] args) {
+            if (args == null || args.length == 0 || !(args[0] instanceof String)) {
+                return null;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            // Only the plain, generated-keys and result-set-type overloads are cached
+            if (types.length == 1
+                    || (types.length == 2 && types[1] == int.class)
+                    || (types.length == 3 && types[1] == int.class && types[2] == int.class)) {
+                return new Key((String) args[0], Arrays.asList(args).subList(1, args.length));
+            }
+            return null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return sql.equals(key.sql) && options.equals(key.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + options.hashCode();
+        }
+    }
+
+    private final class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private Connection owner;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        PreparedStatement checkout(Connection owner) {
+            this.owner = owner;
+            this.inUse = true;
+            return proxy;
+        }
+
+        void checkin() {
+            inUse = false;
+            owner = null;
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                evicted = true;
+                statements.values().remove(this);
+            }
+            if (evicted) {
+                closeQuietly(statement);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        checkin();
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (!inUse) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
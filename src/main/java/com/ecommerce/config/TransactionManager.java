@@ -0,0 +1,136 @@
+package com.ecommerce.config;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class TransactionManager {
+    private static final Logger LOGGER = Logger.getLogger(TransactionManager.class.getName());
+    private static final ThreadLocal<List<Runnable>> BEFORE_COMMIT = new ThreadLocal<>();
+    private static final ThreadLocal<List<Runnable>> AFTER_COMMIT = new ThreadLocal<>();
+    private static final ThreadLocal<List<Runnable>> AFTER_ROLLBACK = new ThreadLocal<>();
+
+    private final DataSource dataSource;
+
+    public TransactionManager(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public <T> T execute(TransactionCallback<T> callback) {
+        List<Runnable> outerBefore = BEFORE_COMMIT.get();
+        List<Runnable> outer = AFTER_COMMIT.get();
+        List<Runnable> outerRollback = AFTER_ROLLBACK.get();
+        List<Runnable> beforeCommit = new ArrayList<>();
+        List<Runnable> afterCommit = new ArrayList<>();
+        List<Runnable> afterRollback = new ArrayList<>();
+        T result;
+        BEFORE_COMMIT.set(beforeCommit);
+        AFTER_COMMIT.set(afterCommit);
+        AFTER_ROLLBACK.set(afterRollback);
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                result = callback.doInTransaction(conn);
+                for (Runnable action : beforeCommit) {
+                    action.run();
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException | Error e) {
+                rollbackQuietly(conn, e);
+                runQuietly(afterRollback, e);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction failed", e);
+        } finally {
+            restore(BEFORE_COMMIT, outerBefore);
+            restore(AFTER_COMMIT, outer);
+            restore(AFTER_ROLLBACK, outerRollback);
+        }
+        runAfterCommit(afterCommit);
+        return result;
+    }
+
+    public static boolean isActive() {
+        return AFTER_COMMIT.get() != null;
+    }
+
+    // Runs the action just before the transaction active on this thread commits; throwing rolls it back.
+    // Used to commit work on other databases (e.g. order shards) that has to succeed for this one to commit.
+    public static void beforeCommit(Runnable action) {
+        List<Runnable> actions = BEFORE_COMMIT.get();
+        if (actions == null) {
+            throw new IllegalArgumentException("No transaction is active on this thread");
+        }
+        actions.add(action);
+    }
+
+    // Runs the action once the transaction active on this thread commits, or right away if there is none
+    public static void afterCommit(Runnable action) {
+        List<Runnable> actions = AFTER_COMMIT.get();
+        if (actions == null) {
+            action.run();
+        } else {
+            actions.add(action);
+        }
+    }
+
+    // Runs the action if the transaction active on this thread rolls back; without one there is nothing to undo
+    public static void afterRollback(Runnable action) {
+        List<Runnable> actions = AFTER_ROLLBACK.get();
+        if (actions != null) {
+            actions.add(action);
+        }
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    private void rollbackQuietly(Connection conn, Throwable cause) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static void runQuietly(List<Runnable> actions, Throwable cause) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+
+    // The transaction has committed, so a failing action must neither skip the ones after it nor reach the
+    // caller, who would take the work as failed and might repeat it
+    private static void runAfterCommit(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "After-commit action failed", e);
+            }
+        }
+    }
+
+    private static void restore(ThreadLocal<List<Runnable>> holder, List<Runnable> outer) {
+        if (outer == null) {
+            holder.remove();
+        } else {
+            holder.set(outer);
+        }
+    }
+
+    @FunctionalInterface
+    public interface TransactionCallback<T> {
+        T doInTransaction(Connection conn) throws SQLException;
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.exception;
+
+public class DuplicateKeyException extends RuntimeException {
+    public DuplicateKeyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
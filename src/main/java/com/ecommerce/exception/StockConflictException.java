@@ -0,0 +1,23 @@
+package com.ecommerce.exception;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+public class StockConflictException extends RuntimeException {
+    private final Map<Long, Integer> rejectedDeltas;
+
+    public StockConflictException(String message, Map<Long, Integer> rejectedDeltas) {
+        super(message);
+        this.rejectedDeltas = Collections.unmodifiableMap(rejectedDeltas);
+    }
+
+    public Set<Long> getProductIds() {
+        return rejectedDeltas.keySet();
+    }
+
+    // Stock changes per product that were promised in memory but could not be written
+    public Map<Long, Integer> getRejectedDeltas() {
+        return rejectedDeltas;
+    }
+}
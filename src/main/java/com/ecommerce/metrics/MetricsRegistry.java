@@ -0,0 +1,89 @@
+package com.ecommerce.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MetricsRegistry {
+    private final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    public OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    public List<OperationSnapshot> snapshot() {
+        List<OperationSnapshot> snapshots = new ArrayList<>(operations.size());
+        for (OperationMetrics metrics : operations.values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        snapshots.sort(Comparator.comparing(OperationSnapshot::getName));
+        return snapshots;
+    }
+
+    // Wraps target so every interface call records latency, errors and rows as "<Interface>.<method>"
+    public <T> T instrument(Class<T> iface, T target) {
+        if (!iface.isInterface()) {
+            throw new IllegalArgumentException(iface.getName() + " is not an interface");
+        }
+        Object proxy = Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[]{iface},
+                new InstrumentedHandler(iface.getSimpleName(), target));
+        return iface.cast(proxy);
+    }
+
+    static long countRows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Map) {
+            long rows = 0;
+            for (Object value : ((Map<?, ?>) result).values()) {
+                rows += value instanceof Collection ? ((Collection<?>) value).size() : 1;
+            }
+            return rows;
+        }
+        if (result == null || result instanceof Boolean || result instanceof Number) {
+            return 0;
+        }
+        return 1;
+    }
+
+    private final class InstrumentedHandler implements InvocationHandler {
+        private final String prefix;
+        private final Object target;
+        private final ConcurrentHashMap<Method, OperationMetrics> byMethod = new ConcurrentHashMap<>();
+
+        InstrumentedHandler(String prefix, Object target) {
+            this.prefix = prefix;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(target, args);
+            }
+            OperationMetrics metrics = byMethod.computeIfAbsent(method,
+                    m -> operation(prefix + "." + m.getName()));
+            long start = System.nanoTime();
+            try {
+                Object result = method.invoke(target, args);
+                metrics.record(System.nanoTime() - start, countRows(result), false);
+                return result;
+            } catch (InvocationTargetException e) {
+                metrics.record(System.nanoTime() - start, 0, true);
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationMetrics {
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos, long rowCount, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+        latency.record(nanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public OperationSnapshot snapshot() {
+        return new OperationSnapshot(name, calls.sum(), errors.sum(), rows.sum(),
+                latency.valueAtQuantile(0.5), latency.valueAtQuantile(0.99), latency.valueAtQuantile(0.999),
+                latency.getMaxNanos(), latency.getTotalNanos());
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.metrics;
+
+public class OperationSnapshot {
+    private final String name;
+    private final long calls;
+    private final long errors;
+    private final long rows;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+    private final long totalNanos;
+
+    public OperationSnapshot(String name, long calls, long errors, long rows, long p50Nanos,
+                             long p99Nanos, long p999Nanos, long maxNanos, long totalNanos) {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.rows = rows;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMeanNanos() {
+        return calls == 0 ? 0 : totalNanos / calls;
+    }
+
+    @Override
+    public String toString() {
+        return "OperationSnapshot{" +
+                "name='" + name + '\'' +
+                ", calls=" + calls +
+                ", errors=" + errors +
+                ", rows=" + rows +
+                ", p50=" + p50Nanos / 1000 + "us" +
+                ", p99=" + p99Nanos / 1000 + "us" +
+                ", p999=" + p999Nanos / 1000 + "us" +
+                ", max=" + maxNanos / 1000 + "us" +
+                '}';
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class PrometheusExporter implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(PrometheusExporter.class.getName());
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final MetricsRegistry registry;
+    private ScheduledExecutorService scheduler;
+    private HttpServer server;
+
+    public PrometheusExporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public String scrape() {
+        return format(registry.snapshot());
+    }
+
+    // Rewrites the file every period; the file is replaced atomically so scrapers never see partial output
+    public synchronized void startFileDump(Path file, long period, TimeUnit unit) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                writeTo(file);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Error writing metrics to " + file, e);
+            }
+        }, period, period, unit);
+    }
+
+    public void writeTo(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, scrape().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Serves GET /metrics on the loopback interface only
+    public synchronized void startHttpServer(int port) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Metrics HTTP server already started");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    public synchronized int getHttpPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    static String format(List<OperationSnapshot> snapshots) {
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP ecommerce_operation_duration_seconds Latency of repository and service calls\n");
+        out.append("# TYPE ecommerce_operation_duration_seconds summary\n");
+        for (OperationSnapshot snapshot : snapshots) {
+            String label = "operation=\"" + escape(snapshot.getName()) + "\"";
+            quantile(out, label, "0.5", snapshot.getP50Nanos());
+            quantile(out, label, "0.99", snapshot.getP99Nanos());
+            quantile(out, label, "0.999", snapshot.getP999Nanos());
+            out.append("ecommerce_operation_duration_seconds_sum{").append(label).append("} ")
+                    .append(seconds(snapshot.getTotalNanos())).append('\n');
+            out.append("ecommerce_operation_duration_seconds_count{").append(label).append("} ")
+                    .append(snapshot.getCalls()).append('\n');
+        }
+        counter(out, snapshots, "ecommerce_operation_errors_total", "Failed repository and service calls",
+                OperationSnapshot::getErrors);
+        counter(out, snapshots, "ecommerce_operation_rows_total", "Rows returned by repository and service calls",
+                OperationSnapshot::getRows);
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, List<OperationSnapshot> snapshots, String metric, String help,
+                                ToLongFunction<OperationSnapshot> value) {
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(" counter\n");
+        for (OperationSnapshot snapshot : snapshots) {
+            out.append(metric).append("{operation=\"").append(escape(snapshot.getName())).append("\"} ")
+                    .append(value.applyAsLong(snapshot)).append('\n');
+        }
+    }
+
+    private static void quantile(StringBuilder out, String label, String quantile, long nanos) {
+        out.append("ecommerce_operation_duration_seconds{").append(label)
+                .append(",quantile=\"").append(quantile).append("\"} ")
+                .append(seconds(nanos)).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / NANOS_PER_SECOND);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
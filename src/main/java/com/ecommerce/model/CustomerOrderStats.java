@@ -0,0 +1,44 @@
+package com.ecommerce.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class CustomerOrderStats {
+    private final Long customerId;
+    private final long orderCount;
+    private final BigDecimal lifetimeValue;
+    private final LocalDateTime lastOrderAt;
+
+    public CustomerOrderStats(Long customerId, long orderCount, BigDecimal lifetimeValue, LocalDateTime lastOrderAt) {
+        this.customerId = customerId;
+        this.orderCount = orderCount;
+        this.lifetimeValue = lifetimeValue;
+        this.lastOrderAt = lastOrderAt;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getLifetimeValue() {
+        return lifetimeValue;
+    }
+
+    public LocalDateTime getLastOrderAt() {
+        return lastOrderAt;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerOrderStats{" +
+                "customerId=" + customerId +
+                ", orderCount=" + orderCount +
+                ", lifetimeValue=" + lifetimeValue +
+                ", lastOrderAt=" + lastOrderAt +
+                '}';
+    }
+}
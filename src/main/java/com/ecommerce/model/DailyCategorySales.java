@@ -0,0 +1,44 @@
+package com.ecommerce.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class DailyCategorySales {
+    private final LocalDate salesDate;
+    private final String category;
+    private final BigDecimal revenue;
+    private final long units;
+
+    public DailyCategorySales(LocalDate salesDate, String category, BigDecimal revenue, long units) {
+        this.salesDate = salesDate;
+        this.category = category;
+        this.revenue = revenue;
+        this.units = units;
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    @Override
+    public String toString() {
+        return "DailyCategorySales{" +
+                "salesDate=" + salesDate +
+                ", category='" + category + '\'' +
+                ", revenue=" + revenue +
+                ", units=" + units +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class HourlyOrderStats {
+    private final LocalDateTime orderHour;
+    private final long orderCount;
+    private final BigDecimal revenue;
+
+    public HourlyOrderStats(LocalDateTime orderHour, long orderCount, BigDecimal revenue) {
+        this.orderHour = orderHour;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+
+    public LocalDateTime getOrderHour() {
+        return orderHour;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    @Override
+    public String toString() {
+        return "HourlyOrderStats{" +
+                "orderHour=" + orderHour +
+                ", orderCount=" + orderCount +
+                ", revenue=" + revenue +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResult {
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private final int maxReportedRejections;
+    private final List<RejectedRow> rejectedRows = new ArrayList<>();
+
+    public ImportResult(int maxReportedRejections) {
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    public void rowRead() {
+        rowsRead++;
+    }
+
+    public void rowsImported(int count) {
+        rowsImported += count;
+    }
+
+    // Every rejection is counted, but only the first maxReportedRejections are kept so memory stays bounded
+    public void reject(long lineNumber, String reason) {
+        rowsRejected++;
+        if (rejectedRows.size() < maxReportedRejections) {
+            rejectedRows.add(new RejectedRow(lineNumber, reason));
+        }
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public List<RejectedRow> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "rowsRead=" + rowsRead +
+                ", rowsImported=" + rowsImported +
+                ", rowsRejected=" + rowsRejected +
+                ", rejectedRows=" + rejectedRows +
+                '}';
+    }
+}
@@ -9,14 +9,14 @@ public class Order {
     private Long id;
     private Long customerId;
     private BigDecimal totalAmount;
-    private String status; // PENDING, PROCESSING, SHIPPED, DELIVERED, CANCELLED
+    private OrderStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<OrderItem> items = new ArrayList<>();
 
     public Order() {}
 
-    public Order(Long id, Long customerId, BigDecimal totalAmount, String status) {
+    public Order(Long id, Long customerId, BigDecimal totalAmount, OrderStatus status) {
         this.id = id;
         this.customerId = customerId;
         this.totalAmount = totalAmount;
@@ -47,11 +47,11 @@ public class Order {
         this.totalAmount = totalAmount;
     }
 
-    public String getStatus() {
+    public OrderStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
     }
 
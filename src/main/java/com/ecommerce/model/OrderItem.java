@@ -9,6 +9,7 @@ public class OrderItem {
     private Integer quantity;
     private BigDecimal unitPrice;
     private BigDecimal subtotal;
+    private String category;
 
     public OrderItem() {}
 
@@ -69,6 +70,15 @@ public class OrderItem {
         this.subtotal = subtotal;
     }
 
+    // The product's category when the item was sold
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
     @Override
     public String toString() {
         return "OrderItem{" +
@@ -78,6 +88,7 @@ public class OrderItem {
                 ", quantity=" + quantity +
                 ", unitPrice=" + unitPrice +
                 ", subtotal=" + subtotal +
+                ", category='" + category + '\'' +
                 '}';
     }
 }
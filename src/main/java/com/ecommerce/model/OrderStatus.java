@@ -0,0 +1,22 @@
+package com.ecommerce.model;
+
+import java.util.Locale;
+
+public enum OrderStatus {
+    PENDING,
+    PROCESSING,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+
+    public static OrderStatus fromString(String status) {
+        if (status == null || status.trim().isEmpty()) {
+            throw new IllegalArgumentException("Order status cannot be empty");
+        }
+        try {
+            return valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid order status: " + status);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.model;
+
+import java.math.BigDecimal;
+
+public class OrderStatusTotals {
+    private final OrderStatus status;
+    private final long orderCount;
+    private final BigDecimal totalAmount;
+
+    public OrderStatusTotals(OrderStatus status, long orderCount, BigDecimal totalAmount) {
+        this.status = status;
+        this.orderCount = orderCount;
+        this.totalAmount = totalAmount;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderStatusTotals{" +
+                "status=" + status +
+                ", orderCount=" + orderCount +
+                ", totalAmount=" + totalAmount +
+                '}';
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.model;
+
+import java.math.BigDecimal;
+
+public class ProductSales {
+    private final Long productId;
+    private final long units;
+    private final BigDecimal revenue;
+
+    public ProductSales(Long productId, long units, BigDecimal revenue) {
+        this.productId = productId;
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSales{" +
+                "productId=" + productId +
+                ", units=" + units +
+                ", revenue=" + revenue +
+                '}';
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.model;
+
+public class RejectedRow {
+    private final long lineNumber;
+    private final String reason;
+
+    public RejectedRow(long lineNumber, String reason) {
+        this.lineNumber = lineNumber;
+        this.reason = reason;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "RejectedRow{" +
+                "lineNumber=" + lineNumber +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
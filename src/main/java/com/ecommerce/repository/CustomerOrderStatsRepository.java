@@ -0,0 +1,13 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.CustomerOrderStats;
+import com.ecommerce.model.Order;
+import java.sql.Connection;
+import java.util.Optional;
+
+public interface CustomerOrderStatsRepository {
+    Optional<CustomerOrderStats> findByCustomerId(Long customerId);
+    void addOrder(Connection conn, Order order);
+    void removeOrder(Connection conn, Order order);
+    int recomputeAll(Connection conn);
+}
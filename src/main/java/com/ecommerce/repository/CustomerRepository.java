@@ -1,15 +1,27 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Customer;
+import com.ecommerce.model.CustomerSummary;
+import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface CustomerRepository {
     Customer save(Customer customer);
+    List<Customer> saveAll(Connection conn, List<Customer> customers);
     Optional<Customer> findById(Long id);
     Optional<Customer> findByEmail(String email);
+    boolean existsByEmail(String email);
+    Set<String> findExistingEmails(Connection conn, Collection<String> emails);
+    Set<Long> findExistingIds(Connection conn, Collection<Long> ids);
     List<Customer> findAll();
-    void update(Customer customer);
-    void delete(Long id);
+    List<Customer> findAfterId(Long lastId, int limit);
+    List<CustomerSummary> findSummariesAfterId(Long lastId, int limit);
+    void streamAll(Consumer<Customer> consumer);
+    Optional<Customer> update(Customer customer);
+    boolean delete(Long id);
     boolean existsById(Long id);
 }
@@ -1,14 +1,20 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.OrderItem;
+import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface OrderItemRepository {
     OrderItem save(OrderItem orderItem);
+    List<OrderItem> saveAll(Connection conn, List<OrderItem> orderItems);
     Optional<OrderItem> findById(Long id);
     List<OrderItem> findByOrderId(Long orderId);
-    void update(OrderItem orderItem);
-    void delete(Long id);
-    void deleteByOrderId(Long orderId);
+    Map<Long, List<OrderItem>> findByOrderIds(Collection<Long> orderIds);
+    Optional<OrderItem> update(OrderItem orderItem);
+    boolean delete(Long id);
+    int deleteByOrderId(Long orderId);
+    List<OrderItem> deleteByOrderId(Connection conn, Long orderId);
 }
@@ -1,16 +1,32 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.OrderStatusTotals;
+import com.ecommerce.model.OrderSummary;
+import java.sql.Connection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface OrderRepository {
     Order save(Order order);
+    Order save(Connection conn, Order order);
+    List<Order> saveAll(Connection conn, List<Order> orders);
     Optional<Order> findById(Long id);
     List<Order> findAll();
+    List<Order> findAfterId(Long lastId, int limit);
+    List<OrderSummary> findSummariesAfterId(Long lastId, int limit);
+    void streamAll(Consumer<Order> consumer);
     List<Order> findByCustomerId(Long customerId);
-    List<Order> findByStatus(String status);
-    void update(Order order);
-    void delete(Long id);
+    List<OrderSummary> findSummariesByCustomerId(Long customerId);
+    List<Order> findByStatus(OrderStatus status);
+    List<OrderSummary> findSummariesByStatus(OrderStatus status);
+    List<OrderStatusTotals> sumByStatus();
+    Optional<Order> update(Order order);
+    Optional<Order> update(Connection conn, Order order);
+    Optional<Order> updateStatus(Connection conn, Long id, OrderStatus expectedStatus, OrderStatus status);
+    boolean delete(Long id);
+    Optional<Order> delete(Connection conn, Long id);
     boolean existsById(Long id);
 }
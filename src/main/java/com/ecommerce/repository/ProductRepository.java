@@ -1,16 +1,30 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductSummary;
+import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductRepository {
     Product save(Product product);
+    List<Product> saveAll(Connection conn, List<Product> products);
     Optional<Product> findById(Long id);
+    Map<Long, Product> findByIds(Collection<Long> ids);
     List<Product> findAll();
+    List<Product> findAfterId(Long lastId, int limit);
+    List<ProductSummary> findSummariesAfterId(Long lastId, int limit);
+    void streamAll(Consumer<Product> consumer);
     List<Product> findByCategory(String category);
+    List<ProductSummary> findSummariesByCategory(String category);
     List<Product> findByPriceRange(Double minPrice, Double maxPrice);
-    void update(Product product);
-    void delete(Long id);
+    Optional<Product> update(Product product);
+    boolean adjustStock(Long productId, int delta);
+    boolean hasStock(Long productId, int quantity);
+    List<Long> adjustStockBatch(Connection conn, Map<Long, Integer> stockDeltas);
+    boolean delete(Long id);
     boolean existsById(Long id);
 }
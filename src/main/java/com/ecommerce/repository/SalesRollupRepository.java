@@ -0,0 +1,18 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.DailyCategorySales;
+import com.ecommerce.model.HourlyOrderStats;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.ProductSales;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesRollupRepository {
+    void applyOrder(Connection conn, Order order, int sign);
+    void rebuild(Connection conn);
+    List<DailyCategorySales> findDailyCategorySales(LocalDate from, LocalDate to);
+    List<ProductSales> findTopProducts(LocalDate from, LocalDate to, int limit);
+    List<HourlyOrderStats> findHourlyOrderStats(LocalDateTime from, LocalDateTime to);
+}
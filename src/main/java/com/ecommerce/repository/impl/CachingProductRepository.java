@@ -0,0 +1,200 @@
+package com.ecommerce.repository.impl;
+
+import com.ecommerce.cache.CacheStats;
+import com.ecommerce.cache.LruCache;
+import com.ecommerce.config.ReadRoutingDataSource;
+import com.ecommerce.config.TransactionManager;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductSummary;
+import com.ecommerce.repository.ProductRepository;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Entries are only filled from the primary: a lagging replica could return the row from before the write that
+// just invalidated it, and the cache would then serve that row until it expires
+public class CachingProductRepository implements ProductRepository {
+    private final ProductRepository delegate;
+    private final LruCache<Long, Product> cache;
+
+    public CachingProductRepository(ProductRepository delegate, int maxSize, Duration ttl) {
+        this.delegate = delegate;
+        this.cache = new LruCache<>(maxSize, ttl);
+    }
+
+    @Override
+    public Product save(Product product) {
+        return delegate.save(product);
+    }
+
+    @Override
+    public List<Product> saveAll(Connection conn, List<Product> products) {
+        return delegate.saveAll(conn, products);
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return cache.getOrLoad(id, key -> ReadRoutingDataSource.onPrimary(() -> delegate.findById(key)))
+                .map(CachingProductRepository::copy);
+    }
+
+    @Override
+    public Map<Long, Product> findByIds(Collection<Long> ids) {
+        Map<Long, Product> products = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Optional<Product> cached = cache.get(id);
+            if (cached.isPresent()) {
+                products.put(id, copy(cached.get()));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long loadGeneration = cache.currentGeneration();
+            products.putAll(ReadRoutingDataSource.onPrimary(() -> {
+                Map<Long, Product> loaded = delegate.findByIds(missing);
+                cacheAll(loadGeneration, new ArrayList<>(loaded.values()));
+                return loaded;
+            }));
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        long loadGeneration = cache.currentGeneration();
+        return cacheAll(loadGeneration, delegate.findAll());
+    }
+
+    @Override
+    public List<Product> findAfterId(Long lastId, int limit) {
+        long loadGeneration = cache.currentGeneration();
+        return cacheAll(loadGeneration, delegate.findAfterId(lastId, limit));
+    }
+
+    @Override
+    public List<ProductSummary> findSummariesAfterId(Long lastId, int limit) {
+        // Summaries are already cheap and would not fill full cache entries, so they go straight through
+        return delegate.findSummariesAfterId(lastId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Product> consumer) {
+        // Full scans would only churn the cache, so they bypass it
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public List<Product> findByCategory(String category) {
+        long loadGeneration = cache.currentGeneration();
+        return cacheAll(loadGeneration, delegate.findByCategory(category));
+    }
+
+    @Override
+    public List<ProductSummary> findSummariesByCategory(String category) {
+        return delegate.findSummariesByCategory(category);
+    }
+
+    @Override
+    public List<Product> findByPriceRange(Double minPrice, Double maxPrice) {
+        long loadGeneration = cache.currentGeneration();
+        return cacheAll(loadGeneration, delegate.findByPriceRange(minPrice, maxPrice));
+    }
+
+    @Override
+    public Optional<Product> update(Product product) {
+        try {
+            return delegate.update(product);
+        } finally {
+            invalidate(product.getId());
+        }
+    }
+
+    @Override
+    public boolean adjustStock(Long productId, int delta) {
+        try {
+            return delegate.adjustStock(productId, delta);
+        } finally {
+            invalidate(productId);
+        }
+    }
+
+    @Override
+    public boolean hasStock(Long productId, int quantity) {
+        return delegate.hasStock(productId, quantity);
+    }
+
+    @Override
+    public List<Long> adjustStockBatch(Connection conn, Map<Long, Integer> stockDeltas) {
+        List<Long> productIds = new ArrayList<>(stockDeltas.keySet());
+        try {
+            return delegate.adjustStockBatch(conn, stockDeltas);
+        } finally {
+            invalidateAll(productIds);
+        }
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        try {
+            return delegate.delete(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        if (cache.get(id).isPresent()) {
+            return true;
+        }
+        return delegate.existsById(id);
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    // Invalidate now and again after commit, so a read of the pre-commit row cannot stay cached
+    private void invalidate(Long id) {
+        cache.invalidate(id);
+        TransactionManager.afterCommit(() -> cache.invalidate(id));
+    }
+
+    private void invalidateAll(List<Long> ids) {
+        cache.invalidateAll(ids);
+        TransactionManager.afterCommit(() -> cache.invalidateAll(ids));
+    }
+
+    // List reads go to the replica unless the caller pinned them, so their rows are only cached when pinned
+    private List<Product> cacheAll(long loadGeneration, List<Product> products) {
+        if (!ReadRoutingDataSource.isPinnedToPrimary()) {
+            return products;
+        }
+        for (Product product : products) {
+            cache.putIfCurrent(product.getId(), copy(product), loadGeneration);
+        }
+        return products;
+    }
+
+    // Callers mutate the entities they get back, so the cache never hands out its own instances
+    private static Product copy(Product source) {
+        Product product = new Product(source.getId(), source.getName(), source.getDescription(),
+                source.getPrice(), source.getStock(), source.getCategory());
+        product.setCreatedAt(source.getCreatedAt());
+        product.setUpdatedAt(source.getUpdatedAt());
+        return product;
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.repository.impl;
+
+import com.ecommerce.config.DatabaseConfig;
+import com.ecommerce.model.CustomerOrderStats;
+import com.ecommerce.model.Order;
+import com.ecommerce.repository.CustomerOrderStatsRepository;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.Optional;
+
+// One row per customer with the running totals of their non-cancelled orders
+public class CustomerOrderStatsRepositoryImpl implements CustomerOrderStatsRepository {
+    private final DataSource dataSource;
+    private final DataSource readDataSource;
+
+    public CustomerOrderStatsRepositoryImpl() {
+        this(DatabaseConfig.getDataSource(), DatabaseConfig.getReadDataSource());
+    }
+
+    public CustomerOrderStatsRepositoryImpl(DataSource dataSource) {
+        this(dataSource, dataSource);
+    }
+
+    public CustomerOrderStatsRepositoryImpl(DataSource dataSource, DataSource readDataSource) {
+        this.dataSource = dataSource;
+        this.readDataSource = readDataSource;
+    }
+
+    @Override
+    public Optional<CustomerOrderStats> findByCustomerId(Long customerId) {
+        String sql = "SELECT * FROM customer_order_stats WHERE customer_id = ?";
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, customerId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Timestamp lastOrderAt = rs.getTimestamp("last_order_at");
+                    return Optional.of(new CustomerOrderStats(rs.getLong("customer_id"), rs.getLong("order_count"),
+                            rs.getBigDecimal("lifetime_value"), lastOrderAt == null ? null : lastOrderAt.toLocalDateTime()));
+                }
+            }
+            
+            return Optional.empty();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding order stats for customer: " + customerId, e);
+        }
+    }
+
+    @Override
+    public void addOrder(Connection conn, Order order) {
+        // Built from the order itself rather than read back, since orders may live in another database (a shard)
+        String sql = "MERGE INTO customer_order_stats t " +
+                     "USING (SELECT CAST(? AS BIGINT) AS customer_id, CAST(? AS DECIMAL(10, 2)) AS total_amount, " +
+                     "CAST(? AS TIMESTAMP) AS created_at) s " +
+                     "ON t.customer_id = s.customer_id " +
+                     "WHEN MATCHED THEN UPDATE SET order_count = t.order_count + 1, " +
+                     "lifetime_value = t.lifetime_value + s.total_amount, " +
+                     "last_order_at = GREATEST(COALESCE(t.last_order_at, s.created_at), s.created_at) " +
+                     "WHEN NOT MATCHED THEN INSERT (customer_id, order_count, lifetime_value, last_order_at) " +
+                     "VALUES (s.customer_id, 1, s.total_amount, s.created_at)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, order.getCustomerId());
+            stmt.setBigDecimal(2, order.getTotalAmount());
+            stmt.setTimestamp(3, Timestamp.valueOf(order.getCreatedAt()));
+            // A customer's first orders can both miss the row and race to insert it
+            SqlUtils.executeUpsert(stmt);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error adding order to customer stats: " + order.getId(), e);
+        }
+    }
+
+    @Override
+    public void removeOrder(Connection conn, Order order) {
+        // Only losing the latest order forces a look back through the customer's history
+        String sql = "UPDATE customer_order_stats SET order_count = order_count - 1, " +
+                     "lifetime_value = lifetime_value - ?, " +
+                     "last_order_at = CASE WHEN last_order_at > ? THEN last_order_at ELSE " +
+                     "(SELECT MAX(created_at) FROM orders WHERE customer_id = ? AND status <> 'CANCELLED' AND id <> ?) END " +
+                     "WHERE customer_id = ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setBigDecimal(1, order.getTotalAmount());
+            stmt.setTimestamp(2, order.getCreatedAt() == null ? null : Timestamp.valueOf(order.getCreatedAt()));
+            stmt.setLong(3, order.getCustomerId());
+            stmt.setLong(4, order.getId());
+            stmt.setLong(5, order.getCustomerId());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error removing order from customer stats: " + order.getId(), e);
+        }
+    }
+
+    @Override
+    public int recomputeAll(Connection conn) {
+        String insertSql = "INSERT INTO customer_order_stats (customer_id, order_count, lifetime_value, last_order_at) " +
+                           "SELECT customer_id, COUNT(*), SUM(total_amount), MAX(created_at) FROM orders " +
+                           "WHERE status <> 'CANCELLED' GROUP BY customer_id";
+        
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM customer_order_stats");
+            return stmt.executeUpdate(insertSql);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error recomputing customer order stats", e);
+        }
+    }
+}
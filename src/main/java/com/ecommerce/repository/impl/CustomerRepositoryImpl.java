@@ -1,22 +1,47 @@
 package com.ecommerce.repository.impl;
 
 import com.ecommerce.config.DatabaseConfig;
+import com.ecommerce.exception.DuplicateKeyException;
 import com.ecommerce.model.Customer;
+import com.ecommerce.model.CustomerSummary;
 import com.ecommerce.repository.CustomerRepository;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class CustomerRepositoryImpl implements CustomerRepository {
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private final DataSource readDataSource;
+
+    public CustomerRepositoryImpl() {
+        this(DatabaseConfig.getDataSource(), DatabaseConfig.getReadDataSource());
+    }
+
+    public CustomerRepositoryImpl(DataSource dataSource) {
+        this(dataSource, dataSource);
+    }
+
+    public CustomerRepositoryImpl(DataSource dataSource, DataSource readDataSource) {
+        this.dataSource = dataSource;
+        this.readDataSource = readDataSource;
+    }
 
     @Override
     public Customer save(Customer customer) {
         String sql = "INSERT INTO customers (name, email, phone, address, created_at, updated_at) " +
                      "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, customer.getName());
@@ -34,15 +59,53 @@ public class CustomerRepositoryImpl implements CustomerRepository {
             
             return customer;
         } catch (SQLException e) {
+            if (SqlUtils.isUniqueViolation(e)) {
+                throw new DuplicateKeyException("Email already registered", e);
+            }
             throw new RuntimeException("Error saving customer", e);
         }
     }
 
+    @Override
+    public List<Customer> saveAll(Connection conn, List<Customer> customers) {
+        String sql = "INSERT INTO customers (name, email, phone, address, created_at, updated_at) " +
+                     "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            for (Customer customer : customers) {
+                stmt.setString(1, customer.getName());
+                stmt.setString(2, customer.getEmail());
+                stmt.setString(3, customer.getPhone());
+                stmt.setString(4, customer.getAddress());
+                stmt.addBatch();
+            }
+            
+            stmt.executeBatch();
+            
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                for (Customer customer : customers) {
+                    if (!generatedKeys.next()) {
+                        break;
+                    }
+                    customer.setId(generatedKeys.getLong(1));
+                }
+            }
+            
+            return customers;
+        } catch (SQLException e) {
+            if (SqlUtils.isUniqueViolation(e)) {
+                throw new DuplicateKeyException("Email already registered", e);
+            }
+            throw new RuntimeException("Error saving customers", e);
+        }
+    }
+
     @Override
     public Optional<Customer> findById(Long id) {
         String sql = "SELECT * FROM customers WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -63,7 +126,7 @@ public class CustomerRepositoryImpl implements CustomerRepository {
     public Optional<Customer> findByEmail(String email) {
         String sql = "SELECT * FROM customers WHERE email = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, email);
@@ -80,14 +143,89 @@ public class CustomerRepositoryImpl implements CustomerRepository {
         }
     }
 
+    @Override
+    public boolean existsByEmail(String email) {
+        String sql = "SELECT 1 FROM customers WHERE email = ?";
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, email);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error checking customer email", e);
+        }
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Connection conn, Collection<String> emails) {
+        Set<String> existing = new HashSet<>();
+        List<String> values = new ArrayList<>(new LinkedHashSet<>(emails));
+        
+        try {
+            for (int from = 0; from < values.size(); from += SqlUtils.IN_CLAUSE_CHUNK_SIZE) {
+                List<String> chunk = values.subList(from, Math.min(from + SqlUtils.IN_CLAUSE_CHUNK_SIZE, values.size()));
+                String sql = "SELECT email FROM customers WHERE email IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setString(i + 1, chunk.get(i));
+                    }
+                    
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            existing.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+            
+            return existing;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding existing customer emails", e);
+        }
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Connection conn, Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> values = new ArrayList<>(new LinkedHashSet<>(ids));
+        
+        try {
+            for (int from = 0; from < values.size(); from += SqlUtils.IN_CLAUSE_CHUNK_SIZE) {
+                List<Long> chunk = values.subList(from, Math.min(from + SqlUtils.IN_CLAUSE_CHUNK_SIZE, values.size()));
+                String sql = "SELECT id FROM customers WHERE id IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setLong(i + 1, chunk.get(i));
+                    }
+                    
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            existing.add(rs.getLong(1));
+                        }
+                    }
+                }
+            }
+            
+            return existing;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding existing customer ids", e);
+        }
+    }
+
     @Override
     public List<Customer> findAll() {
         String sql = "SELECT * FROM customers ORDER BY id";
         List<Customer> customers = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 customers.add(mapResultSetToCustomer(rs));
@@ -99,12 +237,55 @@ public class CustomerRepositoryImpl implements CustomerRepository {
         }
     }
 
+
     @Override
-    public void update(Customer customer) {
-        String sql = "UPDATE customers SET name = ?, email = ?, phone = ?, address = ?, " +
-                     "updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+    public List<Customer> findAfterId(Long lastId, int limit) {
+        String sql = "SELECT * FROM customers WHERE id > ? ORDER BY id LIMIT ?";
+        List<Customer> customers = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, lastId == null ? 0L : lastId);
+            stmt.setInt(2, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    customers.add(mapResultSetToCustomer(rs));
+                }
+            }
+            
+            return customers;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding customers page", e);
+        }
+    }
+
+    @Override
+    public void streamAll(Consumer<Customer> consumer) {
+        String sql = "SELECT * FROM customers ORDER BY id";
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapResultSetToCustomer(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error streaming customers", e);
+        }
+    }
+
+    @Override
+    public Optional<Customer> update(Customer customer) {
+        String sql = "SELECT * FROM FINAL TABLE (UPDATE customers SET name = ?, email = ?, phone = ?, address = ?, " +
+                     "updated_at = CURRENT_TIMESTAMP WHERE id = ?)";
+        
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, customer.getName());
@@ -113,21 +294,30 @@ public class CustomerRepositoryImpl implements CustomerRepository {
             stmt.setString(4, customer.getAddress());
             stmt.setLong(5, customer.getId());
             
-            stmt.executeUpdate();
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToCustomer(rs));
+                }
+            }
+            
+            return Optional.empty();
         } catch (SQLException e) {
+            if (SqlUtils.isUniqueViolation(e)) {
+                throw new DuplicateKeyException("Email already registered", e);
+            }
             throw new RuntimeException("Error updating customer", e);
         }
     }
 
     @Override
-    public void delete(Long id) {
+    public boolean delete(Long id) {
         String sql = "DELETE FROM customers WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
-            stmt.executeUpdate();
+            return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting customer", e);
         }
@@ -137,7 +327,7 @@ public class CustomerRepositoryImpl implements CustomerRepository {
     public boolean existsById(Long id) {
         String sql = "SELECT COUNT(*) FROM customers WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -154,6 +344,33 @@ public class CustomerRepositoryImpl implements CustomerRepository {
         }
     }
 
+    @Override
+    public List<CustomerSummary> findSummariesAfterId(Long lastId, int limit) {
+        String sql = "SELECT id, name, email FROM customers WHERE id > ? ORDER BY id LIMIT ?";
+        List<CustomerSummary> summaries = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, lastId == null ? 0L : lastId);
+            stmt.setInt(2, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(mapResultSetToSummary(rs));
+                }
+            }
+            
+            return summaries;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding customer summaries", e);
+        }
+    }
+
+    private CustomerSummary mapResultSetToSummary(ResultSet rs) throws SQLException {
+        return new CustomerSummary(rs.getLong("id"), rs.getString("name"), rs.getString("email"));
+    }
+
     private Customer mapResultSetToCustomer(ResultSet rs) throws SQLException {
         Customer customer = new Customer();
         customer.setId(rs.getLong("id"));
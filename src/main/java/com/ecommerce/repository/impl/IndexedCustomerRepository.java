@@ -0,0 +1,180 @@
+package com.ecommerce.repository.impl;
+
+import com.ecommerce.cache.BloomFilter;
+import com.ecommerce.cache.CacheStats;
+import com.ecommerce.cache.LruCache;
+import com.ecommerce.model.Customer;
+import com.ecommerce.model.CustomerSummary;
+import com.ecommerce.repository.CustomerRepository;
+
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Answers "is this email taken?" from memory when it can: a Bloom filter rules out new emails without a
+// query, and a bounded cache from normalized email to the customer's id and stored email turns lookups by
+// email into lookups by id. A cached entry only counts once the row with that id still has the email, so
+// updates and deletes never need the email they replace. Rows written by other processes are not seen, so
+// the UNIQUE constraint (mapped to DuplicateKeyException) stays the final check.
+public class IndexedCustomerRepository implements CustomerRepository {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final CustomerRepository delegate;
+    private final BloomFilter emails;
+    private final LruCache<String, EmailEntry> idsByEmail;
+    private volatile boolean loaded;
+
+    public IndexedCustomerRepository(CustomerRepository delegate, int expectedCustomers, int maxCachedEmails) {
+        this.delegate = delegate;
+        this.emails = new BloomFilter(expectedCustomers, FALSE_POSITIVE_RATE);
+        this.idsByEmail = new LruCache<>(maxCachedEmails, null);
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        Customer saved = delegate.save(customer);
+        remember(saved.getEmail());
+        idsByEmail.put(normalize(saved.getEmail()), new EmailEntry(saved.getId(), saved.getEmail()));
+        return saved;
+    }
+
+    @Override
+    public List<Customer> saveAll(Connection conn, List<Customer> customers) {
+        // A rolled back email only costs a false positive, so the filter is updated right away
+        List<Customer> saved = delegate.saveAll(conn, customers);
+        for (Customer customer : saved) {
+            remember(customer.getEmail());
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<Customer> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<Customer> findByEmail(String email) {
+        if (email == null || !mightExist(email)) {
+            return Optional.empty();
+        }
+        String key = normalize(email);
+        Optional<EmailEntry> cached = idsByEmail.get(key);
+        // The column compares exactly, so a cached variant differing only in case or spacing is not a match
+        if (cached.isPresent() && cached.get().email.equals(email)) {
+            // The primary key lookup confirms the row still has this email
+            Optional<Customer> customer = delegate.findById(cached.get().id)
+                    .filter(found -> email.equals(found.getEmail()));
+            if (customer.isPresent()) {
+                return customer;
+            }
+            idsByEmail.invalidate(key);
+        }
+        long loadGeneration = idsByEmail.currentGeneration();
+        Optional<Customer> customer = delegate.findByEmail(email);
+        customer.ifPresent(found -> idsByEmail.putIfCurrent(key, new EmailEntry(found.getId(), found.getEmail()),
+                loadGeneration));
+        return customer;
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (email == null || !mightExist(email)) {
+            return false;
+        }
+        return findByEmail(email).isPresent();
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Connection conn, Collection<String> emails) {
+        return delegate.findExistingEmails(conn, emails);
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Connection conn, Collection<Long> ids) {
+        return delegate.findExistingIds(conn, ids);
+    }
+
+    @Override
+    public List<Customer> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Customer> findAfterId(Long lastId, int limit) {
+        return delegate.findAfterId(lastId, limit);
+    }
+
+    @Override
+    public List<CustomerSummary> findSummariesAfterId(Long lastId, int limit) {
+        return delegate.findSummariesAfterId(lastId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Customer> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public Optional<Customer> update(Customer customer) {
+        // An entry for the email this replaces now fails its check by id and is dropped on its next lookup
+        Optional<Customer> updated = delegate.update(customer);
+        updated.ifPresent(row -> remember(row.getEmail()));
+        return updated;
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        return delegate.delete(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return delegate.existsById(id);
+    }
+
+    public CacheStats getStats() {
+        return idsByEmail.stats();
+    }
+
+    private boolean mightExist(String email) {
+        if (!loaded) {
+            load();
+        }
+        return emails.mightContain(normalize(email));
+    }
+
+    // Filled on first use rather than at construction, so the repository can be built before the schema exists
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        delegate.streamAll(customer -> remember(customer.getEmail()));
+        loaded = true;
+    }
+
+    private void remember(String email) {
+        if (email != null) {
+            emails.add(normalize(email));
+        }
+    }
+
+    // The filter is case-insensitive so it stays a superset of whatever collation the column uses
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class EmailEntry {
+        private final Long id;
+        private final String email;
+        
+        EmailEntry(Long id, String email) {
+            this.id = id;
+            this.email = email;
+        }
+    }
+}
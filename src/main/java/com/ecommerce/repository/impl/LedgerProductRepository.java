@@ -0,0 +1,441 @@
+package com.ecommerce.repository.impl;
+
+import com.ecommerce.config.ReadRoutingDataSource;
+import com.ecommerce.config.TransactionManager;
+import com.ecommerce.exception.StockConflictException;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductSummary;
+import com.ecommerce.repository.ProductRepository;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Keeps stock in memory and writes net deltas back in periodic batches, so hot products stop
+// contending on their database rows. Products are loaded on first use. Deltas not yet flushed are lost if
+// the process dies.
+public class LedgerProductRepository implements ProductRepository, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(LedgerProductRepository.class.getName());
+
+    private final ProductRepository delegate;
+    private final TransactionManager transactionManager;
+    // One word per product packing (available, unflushed delta), so a reservation is a single CAS
+    private final ConcurrentHashMap<Long, AtomicLong> slots = new ConcurrentHashMap<>();
+    // Flushes and absolute stock writes exclude each other; reservations never take it
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Deltas the database refused, kept until someone settles them (see getUnappliedDeltas)
+    private final ConcurrentHashMap<Long, Integer> unapplied = new ConcurrentHashMap<>();
+    // Bumped by absolute stock writes and deletes, so a slot seeded from a row read before one of them is caught
+    private final AtomicLong absoluteWrites = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+
+    // A zero flushInterval disables the background flush; callers then flush explicitly
+    public LedgerProductRepository(ProductRepository delegate, TransactionManager transactionManager,
+                                   Duration flushInterval) {
+        this.delegate = delegate;
+        this.transactionManager = transactionManager;
+        if (flushInterval.isZero()) {
+            this.scheduler = null;
+        } else {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stock-ledger-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = flushInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Product save(Product product) {
+        return delegate.save(product);
+    }
+
+    @Override
+    public List<Product> saveAll(Connection conn, List<Product> products) {
+        return delegate.saveAll(conn, products);
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return delegate.findById(id).map(this::withLiveStock);
+    }
+
+    @Override
+    public Map<Long, Product> findByIds(Collection<Long> ids) {
+        Map<Long, Product> products = delegate.findByIds(ids);
+        for (Product product : products.values()) {
+            withLiveStock(product);
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return withLiveStock(delegate.findAll());
+    }
+
+    @Override
+    public List<Product> findAfterId(Long lastId, int limit) {
+        return withLiveStock(delegate.findAfterId(lastId, limit));
+    }
+
+    @Override
+    public List<ProductSummary> findSummariesAfterId(Long lastId, int limit) {
+        return withLiveSummaryStock(delegate.findSummariesAfterId(lastId, limit));
+    }
+
+    @Override
+    public void streamAll(Consumer<Product> consumer) {
+        delegate.streamAll(product -> consumer.accept(withLiveStock(product)));
+    }
+
+    @Override
+    public List<Product> findByCategory(String category) {
+        return withLiveStock(delegate.findByCategory(category));
+    }
+
+    @Override
+    public List<ProductSummary> findSummariesByCategory(String category) {
+        return withLiveSummaryStock(delegate.findSummariesByCategory(category));
+    }
+
+    @Override
+    public List<Product> findByPriceRange(Double minPrice, Double maxPrice) {
+        return withLiveStock(delegate.findByPriceRange(minPrice, maxPrice));
+    }
+
+    @Override
+    public Optional<Product> update(Product product) {
+        flushLock.lock();
+        try {
+            // No flush can drain meanwhile, so reservations only add to pending from here on
+            AtomicLong before = slots.get(product.getId());
+            int supersededPending = before == null ? 0 : pending(before.get());
+            Optional<Product> updated = delegate.update(product);
+            absoluteWrites.incrementAndGet();
+            // The row now holds an absolute value, which supersedes the deltas pending when it was written;
+            // reservations made since then stay pending on top of it
+            updated.ifPresent(row -> slots.computeIfPresent(row.getId(), (id, slot) -> {
+                while (true) {
+                    long state = slot.get();
+                    int pending = pending(state) - supersededPending;
+                    if (slot.compareAndSet(state, pack(row.getStock() + pending, pending))) {
+                        return slot;
+                    }
+                }
+            }));
+            return updated;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean adjustStock(Long productId, int delta) {
+        return apply(productId, delta, false);
+    }
+
+    @Override
+    public boolean hasStock(Long productId, int quantity) {
+        AtomicLong slot = slot(productId);
+        return slot != null && available(slot.get()) >= quantity;
+    }
+
+    @Override
+    public List<Long> adjustStockBatch(Connection conn, Map<Long, Integer> stockDeltas) {
+        // Nothing is written through conn; its transaction only decides whether the reservation is kept
+        Map<Long, Integer> applied = new HashMap<>();
+        List<Long> rejected = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(stockDeltas).entrySet()) {
+            if (apply(entry.getKey(), entry.getValue(), false)) {
+                applied.put(entry.getKey(), entry.getValue());
+            } else {
+                rejected.add(entry.getKey());
+            }
+        }
+        if (!applied.isEmpty()) {
+            TransactionManager.afterRollback(() -> {
+                for (Map.Entry<Long, Integer> entry : applied.entrySet()) {
+                    apply(entry.getKey(), -entry.getValue(), true);
+                }
+            });
+        }
+        return rejected;
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        flushLock.lock();
+        try {
+            boolean deleted = delegate.delete(id);
+            absoluteWrites.incrementAndGet();
+            slots.remove(id);
+            return deleted;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return slots.containsKey(id) || delegate.existsById(id);
+    }
+
+    // Writes every unflushed delta in one transaction and returns how many products were updated. Deltas the
+    // database rejects (the row was changed behind the ledger's back) are not retried: the product is reloaded,
+    // the delta is kept in getUnappliedDeltas and a StockConflictException names the products after the
+    // accepted deltas are committed.
+    public int flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Integer> deltas = new HashMap<>();
+            for (Map.Entry<Long, AtomicLong> entry : slots.entrySet()) {
+                int pending = drain(entry.getValue());
+                if (pending != 0) {
+                    deltas.put(entry.getKey(), pending);
+                }
+            }
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+            
+            List<Long> rejected;
+            try {
+                rejected = transactionManager.execute(conn -> delegate.adjustStockBatch(conn, deltas));
+            } catch (RuntimeException e) {
+                // Nothing was written, so the deltas go back to be retried by the next flush
+                for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+                    restore(entry.getKey(), entry.getValue());
+                }
+                throw e;
+            }
+            
+            if (rejected.isEmpty()) {
+                return deltas.size();
+            }
+            Map<Long, Integer> rejectedDeltas = new TreeMap<>();
+            for (Long productId : rejected) {
+                rejectedDeltas.put(productId, deltas.get(productId));
+                unapplied.merge(productId, deltas.get(productId), Integer::sum);
+                reload(productId);
+            }
+            throw new StockConflictException("Stock deltas could not be applied for products: "
+                    + rejectedDeltas.keySet(), rejectedDeltas);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Flushes, then reloads every product so the ledger matches the database plus reservations made since
+    public void reconcile() {
+        flushLock.lock();
+        try {
+            StockConflictException conflict = null;
+            try {
+                flush();
+            } catch (StockConflictException e) {
+                conflict = e;
+            }
+            Set<Long> seen = new HashSet<>();
+            // The scan must see the flush just committed, so it reads the primary
+            ReadRoutingDataSource.onPrimary(() -> {
+                delegate.streamAll(product -> {
+                    seen.add(product.getId());
+                    int stock = product.getStock();
+                    slots.compute(product.getId(), (id, slot) -> {
+                        if (slot == null) {
+                            return new AtomicLong(pack(stock, 0));
+                        }
+                        resetAvailable(slot, stock);
+                        return slot;
+                    });
+                });
+                return null;
+            });
+            slots.keySet().retainAll(seen);
+            if (conflict != null) {
+                throw conflict;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Stock promised to buyers that the database refused, per product, summed over flushes
+    public Map<Long, Integer> getUnappliedDeltas() {
+        return new HashMap<>(unapplied);
+    }
+
+    // Called once an unapplied delta has been dealt with, e.g. the order cancelled or stock corrected
+    public void settleUnapplied(Long productId) {
+        unapplied.remove(productId);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error flushing stock ledger", e);
+        }
+    }
+
+    private AtomicLong slot(Long productId) {
+        AtomicLong slot = slots.get(productId);
+        if (slot != null) {
+            return slot;
+        }
+        // Seeded on first use, from the primary since the product may have only just been written; unknown ids
+        // get no slot. The row is read outside the map so no bin stays locked for a database round trip.
+        long writesBefore = absoluteWrites.get();
+        Optional<Product> product = ReadRoutingDataSource.onPrimary(() -> delegate.findById(productId));
+        if (product.isEmpty()) {
+            return slots.get(productId);
+        }
+        AtomicLong seeded = new AtomicLong(pack(product.get().getStock(), 0));
+        AtomicLong existing = slots.putIfAbsent(productId, seeded);
+        if (existing != null) {
+            return existing;
+        }
+        // An update or delete bumps the count before adjusting slots, so one that missed this slot is seen here
+        if (absoluteWrites.get() != writesBefore) {
+            flushLock.lock();
+            try {
+                reload(productId);
+            } finally {
+                flushLock.unlock();
+            }
+            return slots.get(productId);
+        }
+        return seeded;
+    }
+
+    private boolean apply(Long productId, int delta, boolean allowNegative) {
+        AtomicLong slot = slot(productId);
+        if (slot == null) {
+            return false;
+        }
+        while (true) {
+            long state = slot.get();
+            int available = available(state) + delta;
+            if (available < 0 && !allowNegative) {
+                return false;
+            }
+            if (slot.compareAndSet(state, pack(available, pending(state) + delta))) {
+                return true;
+            }
+        }
+    }
+
+    private void reload(Long productId) {
+        Optional<Product> product = ReadRoutingDataSource.onPrimary(() -> delegate.findById(productId));
+        if (product.isEmpty()) {
+            slots.remove(productId);
+            return;
+        }
+        AtomicLong slot = slots.get(productId);
+        if (slot != null) {
+            resetAvailable(slot, product.get().getStock());
+        }
+    }
+
+    private static int drain(AtomicLong slot) {
+        while (true) {
+            long state = slot.get();
+            if (slot.compareAndSet(state, pack(available(state), 0))) {
+                return pending(state);
+            }
+        }
+    }
+
+    private void restore(Long productId, int delta) {
+        AtomicLong slot = slots.get(productId);
+        if (slot == null) {
+            return;
+        }
+        while (true) {
+            long state = slot.get();
+            if (slot.compareAndSet(state, pack(available(state), pending(state) + delta))) {
+                return;
+            }
+        }
+    }
+
+    // Database stock plus the reservations it has not seen yet
+    private static void resetAvailable(AtomicLong slot, int databaseStock) {
+        while (true) {
+            long state = slot.get();
+            if (slot.compareAndSet(state, pack(databaseStock + pending(state), pending(state)))) {
+                return;
+            }
+        }
+    }
+
+    private Product withLiveStock(Product product) {
+        AtomicLong slot = slots.get(product.getId());
+        if (slot != null) {
+            product.setStock(available(slot.get()));
+        }
+        return product;
+    }
+
+    private List<Product> withLiveStock(List<Product> products) {
+        for (Product product : products) {
+            withLiveStock(product);
+        }
+        return products;
+    }
+
+    private List<ProductSummary> withLiveSummaryStock(List<ProductSummary> summaries) {
+        for (ProductSummary summary : summaries) {
+            AtomicLong slot = slots.get(summary.getId());
+            if (slot != null) {
+                summary.setStock(available(slot.get()));
+            }
+        }
+        return summaries;
+    }
+
+    private static long pack(int available, int pending) {
+        return ((long) available << 32) | (pending & 0xFFFFFFFFL);
+    }
+
+    private static int available(long state) {
+        return (int) (state >> 32);
+    }
+
+    private static int pending(long state) {
+        return (int) state;
+    }
+}
@@ -4,19 +4,39 @@ import com.ecommerce.config.DatabaseConfig;
 import com.ecommerce.model.OrderItem;
 import com.ecommerce.repository.OrderItemRepository;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class OrderItemRepositoryImpl implements OrderItemRepository {
+    private final DataSource dataSource;
+    private final DataSource readDataSource;
+
+    public OrderItemRepositoryImpl() {
+        this(DatabaseConfig.getDataSource(), DatabaseConfig.getReadDataSource());
+    }
+
+    public OrderItemRepositoryImpl(DataSource dataSource) {
+        this(dataSource, dataSource);
+    }
+
+    public OrderItemRepositoryImpl(DataSource dataSource, DataSource readDataSource) {
+        this.dataSource = dataSource;
+        this.readDataSource = readDataSource;
+    }
 
     @Override
     public OrderItem save(OrderItem orderItem) {
-        String sql = "INSERT INTO order_items (order_id, product_id, quantity, unit_price, subtotal) " +
-                     "VALUES (?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO order_items (order_id, product_id, quantity, unit_price, subtotal, category) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setLong(1, orderItem.getOrderId());
@@ -24,6 +44,7 @@ public class OrderItemRepositoryImpl implements OrderItemRepository {
             stmt.setInt(3, orderItem.getQuantity());
             stmt.setBigDecimal(4, orderItem.getUnitPrice());
             stmt.setBigDecimal(5, orderItem.getSubtotal());
+            stmt.setString(6, orderItem.getCategory());
             
             stmt.executeUpdate();
             
@@ -39,11 +60,45 @@ public class OrderItemRepositoryImpl implements OrderItemRepository {
         }
     }
 
+    @Override
+    public List<OrderItem> saveAll(Connection conn, List<OrderItem> orderItems) {
+        String sql = "INSERT INTO order_items (order_id, product_id, quantity, unit_price, subtotal, category) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            for (OrderItem orderItem : orderItems) {
+                stmt.setLong(1, orderItem.getOrderId());
+                stmt.setLong(2, orderItem.getProductId());
+                stmt.setInt(3, orderItem.getQuantity());
+                stmt.setBigDecimal(4, orderItem.getUnitPrice());
+                stmt.setBigDecimal(5, orderItem.getSubtotal());
+                stmt.setString(6, orderItem.getCategory());
+                stmt.addBatch();
+            }
+            
+            stmt.executeBatch();
+            
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                for (OrderItem orderItem : orderItems) {
+                    if (!generatedKeys.next()) {
+                        break;
+                    }
+                    orderItem.setId(generatedKeys.getLong(1));
+                }
+            }
+            
+            return orderItems;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving order items", e);
+        }
+    }
+
     @Override
     public Optional<OrderItem> findById(Long id) {
         String sql = "SELECT * FROM order_items WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -65,7 +120,7 @@ public class OrderItemRepositoryImpl implements OrderItemRepository {
         String sql = "SELECT * FROM order_items WHERE order_id = ?";
         List<OrderItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, orderId);
@@ -83,11 +138,41 @@ public class OrderItemRepositoryImpl implements OrderItemRepository {
     }
 
     @Override
-    public void update(OrderItem orderItem) {
-        String sql = "UPDATE order_items SET order_id = ?, product_id = ?, quantity = ?, " +
-                     "unit_price = ?, subtotal = ? WHERE id = ?";
+    public Map<Long, List<OrderItem>> findByOrderIds(Collection<Long> orderIds) {
+        Map<Long, List<OrderItem>> itemsByOrderId = new HashMap<>();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        
+        try (Connection conn = readDataSource.getConnection()) {
+            for (int from = 0; from < ids.size(); from += SqlUtils.IN_CLAUSE_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + SqlUtils.IN_CLAUSE_CHUNK_SIZE, ids.size()));
+                String sql = "SELECT * FROM order_items WHERE order_id IN (" + SqlUtils.placeholders(chunk.size()) + ") ORDER BY id";
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setLong(i + 1, chunk.get(i));
+                    }
+                    
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            OrderItem item = mapResultSetToOrderItem(rs);
+                            itemsByOrderId.computeIfAbsent(item.getOrderId(), key -> new ArrayList<>()).add(item);
+                        }
+                    }
+                }
+            }
+            
+            return itemsByOrderId;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding order items by order ids", e);
+        }
+    }
+
+    @Override
+    public Optional<OrderItem> update(OrderItem orderItem) {
+        String sql = "SELECT * FROM FINAL TABLE (UPDATE order_items SET order_id = ?, product_id = ?, quantity = ?, " +
+                     "unit_price = ?, subtotal = ? WHERE id = ?)";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, orderItem.getOrderId());
@@ -97,35 +182,58 @@ public class OrderItemRepositoryImpl implements OrderItemRepository {
             stmt.setBigDecimal(5, orderItem.getSubtotal());
             stmt.setLong(6, orderItem.getId());
             
-            stmt.executeUpdate();
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToOrderItem(rs));
+                }
+            }
+            
+            return Optional.empty();
         } catch (SQLException e) {
             throw new RuntimeException("Error updating order item", e);
         }
     }
 
     @Override
-    public void delete(Long id) {
+    public boolean delete(Long id) {
         String sql = "DELETE FROM order_items WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
-            stmt.executeUpdate();
+            return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting order item", e);
         }
     }
 
     @Override
-    public void deleteByOrderId(Long orderId) {
-        String sql = "DELETE FROM order_items WHERE order_id = ?";
+    public int deleteByOrderId(Long orderId) {
+        try (Connection conn = dataSource.getConnection()) {
+            return deleteByOrderId(conn, orderId).size();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error deleting order items by order id", e);
+        }
+    }
+
+    @Override
+    public List<OrderItem> deleteByOrderId(Connection conn, Long orderId) {
+        // OLD TABLE hands back the removed items, so listeners can take them out of what they count
+        String sql = "SELECT * FROM OLD TABLE (DELETE FROM order_items WHERE order_id = ?)";
+        List<OrderItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, orderId);
-            stmt.executeUpdate();
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapResultSetToOrderItem(rs));
+                }
+            }
+            
+            return items;
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting order items by order id", e);
         }
@@ -139,6 +247,7 @@ public class OrderItemRepositoryImpl implements OrderItemRepository {
         item.setQuantity(rs.getInt("quantity"));
         item.setUnitPrice(rs.getBigDecimal("unit_price"));
         item.setSubtotal(rs.getBigDecimal("subtotal"));
+        item.setCategory(rs.getString("category"));
         return item;
     }
 }
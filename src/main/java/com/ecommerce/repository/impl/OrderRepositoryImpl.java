@@ -2,32 +2,65 @@ package com.ecommerce.repository.impl;
 
 import com.ecommerce.config.DatabaseConfig;
 import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.OrderStatusTotals;
+import com.ecommerce.model.OrderSummary;
 import com.ecommerce.repository.OrderRepository;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class OrderRepositoryImpl implements OrderRepository {
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    // created_at comes back with the id, so order events carry the time the rollups and stats are keyed by
+    private static final String[] GENERATED_COLUMNS = {"id", "created_at"};
+
+    private final DataSource dataSource;
+    private final DataSource readDataSource;
+
+    public OrderRepositoryImpl() {
+        this(DatabaseConfig.getDataSource(), DatabaseConfig.getReadDataSource());
+    }
+
+    public OrderRepositoryImpl(DataSource dataSource) {
+        this(dataSource, dataSource);
+    }
+
+    public OrderRepositoryImpl(DataSource dataSource, DataSource readDataSource) {
+        this.dataSource = dataSource;
+        this.readDataSource = readDataSource;
+    }
 
     @Override
     public Order save(Order order) {
+        try (Connection conn = dataSource.getConnection()) {
+            return save(conn, order);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving order", e);
+        }
+    }
+
+    @Override
+    public Order save(Connection conn, Order order) {
         String sql = "INSERT INTO orders (customer_id, total_amount, status, created_at, updated_at) " +
                      "VALUES (?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, GENERATED_COLUMNS)) {
             
             stmt.setLong(1, order.getCustomerId());
             stmt.setBigDecimal(2, order.getTotalAmount());
-            stmt.setString(3, order.getStatus());
+            stmt.setString(3, order.getStatus().name());
             
             stmt.executeUpdate();
             
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
-                    order.setId(generatedKeys.getLong(1));
+                    setGenerated(order, generatedKeys);
                 }
             }
             
@@ -37,11 +70,42 @@ public class OrderRepositoryImpl implements OrderRepository {
         }
     }
 
+    @Override
+    public List<Order> saveAll(Connection conn, List<Order> orders) {
+        String sql = "INSERT INTO orders (customer_id, total_amount, status, created_at, updated_at) " +
+                     "VALUES (?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql, GENERATED_COLUMNS)) {
+            
+            for (Order order : orders) {
+                stmt.setLong(1, order.getCustomerId());
+                stmt.setBigDecimal(2, order.getTotalAmount());
+                stmt.setString(3, order.getStatus().name());
+                stmt.addBatch();
+            }
+            
+            stmt.executeBatch();
+            
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                for (Order order : orders) {
+                    if (!generatedKeys.next()) {
+                        break;
+                    }
+                    setGenerated(order, generatedKeys);
+                }
+            }
+            
+            return orders;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving orders", e);
+        }
+    }
+
     @Override
     public Optional<Order> findById(Long id) {
         String sql = "SELECT * FROM orders WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -63,9 +127,9 @@ public class OrderRepositoryImpl implements OrderRepository {
         String sql = "SELECT * FROM orders ORDER BY id";
         List<Order> orders = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 orders.add(mapResultSetToOrder(rs));
@@ -77,12 +141,55 @@ public class OrderRepositoryImpl implements OrderRepository {
         }
     }
 
+
+    @Override
+    public List<Order> findAfterId(Long lastId, int limit) {
+        String sql = "SELECT * FROM orders WHERE id > ? ORDER BY id LIMIT ?";
+        List<Order> orders = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, lastId == null ? 0L : lastId);
+            stmt.setInt(2, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToOrder(rs));
+                }
+            }
+            
+            return orders;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding orders page", e);
+        }
+    }
+
+    @Override
+    public void streamAll(Consumer<Order> consumer) {
+        String sql = "SELECT * FROM orders ORDER BY id";
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapResultSetToOrder(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error streaming orders", e);
+        }
+    }
+
     @Override
     public List<Order> findByCustomerId(Long customerId) {
         String sql = "SELECT * FROM orders WHERE customer_id = ? ORDER BY created_at DESC";
         List<Order> orders = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, customerId);
@@ -100,14 +207,14 @@ public class OrderRepositoryImpl implements OrderRepository {
     }
 
     @Override
-    public List<Order> findByStatus(String status) {
+    public List<Order> findByStatus(OrderStatus status) {
         String sql = "SELECT * FROM orders WHERE status = ? ORDER BY created_at DESC";
         List<Order> orders = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, status);
+            stmt.setString(1, status.name());
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -122,33 +229,103 @@ public class OrderRepositoryImpl implements OrderRepository {
     }
 
     @Override
-    public void update(Order order) {
-        String sql = "UPDATE orders SET customer_id = ?, total_amount = ?, status = ?, " +
-                     "updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+    public Optional<Order> update(Order order) {
+        try (Connection conn = dataSource.getConnection()) {
+            return update(conn, order);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error updating order", e);
+        }
+    }
+
+    @Override
+    public Optional<Order> update(Connection conn, Order order) {
+        String sql = "SELECT * FROM FINAL TABLE (UPDATE orders SET customer_id = ?, total_amount = ?, status = ?, " +
+                     "updated_at = CURRENT_TIMESTAMP WHERE id = ?)";
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, order.getCustomerId());
             stmt.setBigDecimal(2, order.getTotalAmount());
-            stmt.setString(3, order.getStatus());
+            stmt.setString(3, order.getStatus().name());
             stmt.setLong(4, order.getId());
             
-            stmt.executeUpdate();
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToOrder(rs));
+                }
+            }
+            
+            return Optional.empty();
         } catch (SQLException e) {
             throw new RuntimeException("Error updating order", e);
         }
     }
 
     @Override
-    public void delete(Long id) {
+    public Optional<Order> updateStatus(Connection conn, Long id, OrderStatus expectedStatus, OrderStatus status) {
+        // Compare-and-set on the status, so two writers cannot both move an order out of the same state.
+        // The row is locked and checked first: H2 can miss a commit that lands just as an UPDATE starts,
+        // and then applies the UPDATE's WHERE clause to the old status.
+        String lockSql = "SELECT status FROM orders WHERE id = ? FOR UPDATE";
+        String sql = "SELECT * FROM FINAL TABLE (UPDATE orders SET status = ?, updated_at = CURRENT_TIMESTAMP " +
+                     "WHERE id = ? AND status = ?)";
+        
+        try (PreparedStatement lockStmt = conn.prepareStatement(lockSql);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            lockStmt.setLong(1, id);
+            try (ResultSet rs = lockStmt.executeQuery()) {
+                if (!rs.next() || !expectedStatus.name().equals(rs.getString(1))) {
+                    return Optional.empty();
+                }
+            }
+            
+            stmt.setString(1, status.name());
+            stmt.setLong(2, id);
+            stmt.setString(3, expectedStatus.name());
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToOrder(rs));
+                }
+            }
+            
+            return Optional.empty();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error updating order status", e);
+        }
+    }
+
+    @Override
+    public boolean delete(Long id) {
         String sql = "DELETE FROM orders WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
-            stmt.executeUpdate();
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error deleting order", e);
+        }
+    }
+
+    @Override
+    public Optional<Order> delete(Connection conn, Long id) {
+        // OLD TABLE hands back the row as it was, so callers can react to what was removed
+        String sql = "SELECT * FROM OLD TABLE (DELETE FROM orders WHERE id = ?)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, id);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToOrder(rs));
+                }
+            }
+            
+            return Optional.empty();
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting order", e);
         }
@@ -158,7 +335,7 @@ public class OrderRepositoryImpl implements OrderRepository {
     public boolean existsById(Long id) {
         String sql = "SELECT COUNT(*) FROM orders WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -175,12 +352,108 @@ public class OrderRepositoryImpl implements OrderRepository {
         }
     }
 
+    @Override
+    public List<OrderSummary> findSummariesAfterId(Long lastId, int limit) {
+        String sql = "SELECT id, customer_id, total_amount, status, created_at FROM orders WHERE id > ? ORDER BY id LIMIT ?";
+        List<OrderSummary> summaries = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, lastId == null ? 0L : lastId);
+            stmt.setInt(2, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(mapResultSetToSummary(rs));
+                }
+            }
+            
+            return summaries;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding order summaries", e);
+        }
+    }
+
+    @Override
+    public List<OrderSummary> findSummariesByCustomerId(Long customerId) {
+        String sql = "SELECT id, customer_id, total_amount, status, created_at FROM orders WHERE customer_id = ? ORDER BY created_at DESC";
+        List<OrderSummary> summaries = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, customerId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(mapResultSetToSummary(rs));
+                }
+            }
+            
+            return summaries;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding order summaries by customer", e);
+        }
+    }
+
+    @Override
+    public List<OrderSummary> findSummariesByStatus(OrderStatus status) {
+        String sql = "SELECT id, customer_id, total_amount, status, created_at FROM orders WHERE status = ? ORDER BY created_at DESC";
+        List<OrderSummary> summaries = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, status.name());
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(mapResultSetToSummary(rs));
+                }
+            }
+            
+            return summaries;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding order summaries by status", e);
+        }
+    }
+
+    @Override
+    public List<OrderStatusTotals> sumByStatus() {
+        String sql = "SELECT status, COUNT(*), COALESCE(SUM(total_amount), 0) FROM orders GROUP BY status";
+        List<OrderStatusTotals> totals = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                totals.add(new OrderStatusTotals(OrderStatus.valueOf(rs.getString(1)), rs.getLong(2), rs.getBigDecimal(3)));
+            }
+            
+            return totals;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error summing orders by status", e);
+        }
+    }
+
+    private OrderSummary mapResultSetToSummary(ResultSet rs) throws SQLException {
+        return new OrderSummary(rs.getLong("id"), rs.getLong("customer_id"), rs.getBigDecimal("total_amount"),
+                OrderStatus.valueOf(rs.getString("status")), rs.getTimestamp("created_at").toLocalDateTime());
+    }
+
+    private static void setGenerated(Order order, ResultSet generatedKeys) throws SQLException {
+        order.setId(generatedKeys.getLong(1));
+        order.setCreatedAt(generatedKeys.getTimestamp(2).toLocalDateTime());
+    }
+
     private Order mapResultSetToOrder(ResultSet rs) throws SQLException {
         Order order = new Order();
         order.setId(rs.getLong("id"));
         order.setCustomerId(rs.getLong("customer_id"));
         order.setTotalAmount(rs.getBigDecimal("total_amount"));
-        order.setStatus(rs.getString("status"));
+        order.setStatus(OrderStatus.valueOf(rs.getString("status")));
         order.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         order.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
         return order;
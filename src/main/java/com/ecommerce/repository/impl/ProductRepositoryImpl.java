@@ -2,21 +2,46 @@ package com.ecommerce.repository.impl;
 
 import com.ecommerce.config.DatabaseConfig;
 import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductSummary;
 import com.ecommerce.repository.ProductRepository;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.TreeMap;
 
 public class ProductRepositoryImpl implements ProductRepository {
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private final DataSource readDataSource;
+
+    public ProductRepositoryImpl() {
+        this(DatabaseConfig.getDataSource(), DatabaseConfig.getReadDataSource());
+    }
+
+    public ProductRepositoryImpl(DataSource dataSource) {
+        this(dataSource, dataSource);
+    }
+
+    public ProductRepositoryImpl(DataSource dataSource, DataSource readDataSource) {
+        this.dataSource = dataSource;
+        this.readDataSource = readDataSource;
+    }
 
     @Override
     public Product save(Product product) {
         String sql = "INSERT INTO products (name, description, price, stock, category, created_at, updated_at) " +
                      "VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, product.getName());
@@ -39,11 +64,44 @@ public class ProductRepositoryImpl implements ProductRepository {
         }
     }
 
+    @Override
+    public List<Product> saveAll(Connection conn, List<Product> products) {
+        String sql = "INSERT INTO products (name, description, price, stock, category, created_at, updated_at) " +
+                     "VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            for (Product product : products) {
+                stmt.setString(1, product.getName());
+                stmt.setString(2, product.getDescription());
+                stmt.setBigDecimal(3, product.getPrice());
+                stmt.setInt(4, product.getStock());
+                stmt.setString(5, product.getCategory());
+                stmt.addBatch();
+            }
+            
+            stmt.executeBatch();
+            
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                for (Product product : products) {
+                    if (!generatedKeys.next()) {
+                        break;
+                    }
+                    product.setId(generatedKeys.getLong(1));
+                }
+            }
+            
+            return products;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving products", e);
+        }
+    }
+
     @Override
     public Optional<Product> findById(Long id) {
         String sql = "SELECT * FROM products WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -60,14 +118,44 @@ public class ProductRepositoryImpl implements ProductRepository {
         }
     }
 
+    @Override
+    public Map<Long, Product> findByIds(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        
+        try (Connection conn = readDataSource.getConnection()) {
+            for (int from = 0; from < ids.size(); from += SqlUtils.IN_CLAUSE_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + SqlUtils.IN_CLAUSE_CHUNK_SIZE, ids.size()));
+                String sql = "SELECT * FROM products WHERE id IN (" + SqlUtils.placeholders(chunk.size()) + ")";
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setLong(i + 1, chunk.get(i));
+                    }
+                    
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Product product = mapResultSetToProduct(rs);
+                            products.put(product.getId(), product);
+                        }
+                    }
+                }
+            }
+            
+            return products;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding products by ids", e);
+        }
+    }
+
     @Override
     public List<Product> findAll() {
         String sql = "SELECT * FROM products ORDER BY id";
         List<Product> products = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 products.add(mapResultSetToProduct(rs));
@@ -79,12 +167,55 @@ public class ProductRepositoryImpl implements ProductRepository {
         }
     }
 
+
+    @Override
+    public List<Product> findAfterId(Long lastId, int limit) {
+        String sql = "SELECT * FROM products WHERE id > ? ORDER BY id LIMIT ?";
+        List<Product> products = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, lastId == null ? 0L : lastId);
+            stmt.setInt(2, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapResultSetToProduct(rs));
+                }
+            }
+            
+            return products;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding products page", e);
+        }
+    }
+
+    @Override
+    public void streamAll(Consumer<Product> consumer) {
+        String sql = "SELECT * FROM products ORDER BY id";
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapResultSetToProduct(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error streaming products", e);
+        }
+    }
+
     @Override
     public List<Product> findByCategory(String category) {
         String sql = "SELECT * FROM products WHERE category = ? ORDER BY name";
         List<Product> products = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, category);
@@ -106,7 +237,7 @@ public class ProductRepositoryImpl implements ProductRepository {
         String sql = "SELECT * FROM products WHERE price BETWEEN ? AND ? ORDER BY price";
         List<Product> products = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setDouble(1, minPrice);
@@ -125,11 +256,11 @@ public class ProductRepositoryImpl implements ProductRepository {
     }
 
     @Override
-    public void update(Product product) {
-        String sql = "UPDATE products SET name = ?, description = ?, price = ?, stock = ?, " +
-                     "category = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+    public Optional<Product> update(Product product) {
+        String sql = "SELECT * FROM FINAL TABLE (UPDATE products SET name = ?, description = ?, price = ?, stock = ?, " +
+                     "category = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?)";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, product.getName());
@@ -139,21 +270,98 @@ public class ProductRepositoryImpl implements ProductRepository {
             stmt.setString(5, product.getCategory());
             stmt.setLong(6, product.getId());
             
-            stmt.executeUpdate();
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToProduct(rs));
+                }
+            }
+            
+            return Optional.empty();
         } catch (SQLException e) {
             throw new RuntimeException("Error updating product", e);
         }
     }
 
     @Override
-    public void delete(Long id) {
+    public boolean adjustStock(Long productId, int delta) {
+        String sql = "UPDATE products SET stock = stock + ?, updated_at = CURRENT_TIMESTAMP " +
+                     "WHERE id = ? AND stock + ? >= 0";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, delta);
+            stmt.setLong(2, productId);
+            stmt.setInt(3, delta);
+            
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error adjusting product stock", e);
+        }
+    }
+
+    @Override
+    public boolean hasStock(Long productId, int quantity) {
+        String sql = "SELECT COUNT(*) FROM products WHERE id = ? AND stock >= ?";
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, productId);
+            stmt.setInt(2, quantity);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1) > 0;
+                }
+            }
+            
+            return false;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error checking product stock", e);
+        }
+    }
+
+    @Override
+    public List<Long> adjustStockBatch(Connection conn, Map<Long, Integer> stockDeltas) {
+        String sql = "UPDATE products SET stock = stock + ?, updated_at = CURRENT_TIMESTAMP " +
+                     "WHERE id = ? AND stock + ? >= 0";
+        // Lock rows in id order so concurrent orders cannot deadlock on each other
+        List<Long> productIds = new ArrayList<>(new TreeMap<>(stockDeltas).keySet());
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            for (Long productId : productIds) {
+                int delta = stockDeltas.get(productId);
+                stmt.setInt(1, delta);
+                stmt.setLong(2, productId);
+                stmt.setInt(3, delta);
+                stmt.addBatch();
+            }
+            
+            int[] updateCounts = stmt.executeBatch();
+            
+            List<Long> rejected = new ArrayList<>();
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] == 0) {
+                    rejected.add(productIds.get(i));
+                }
+            }
+            return rejected;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error adjusting product stock", e);
+        }
+    }
+
+    @Override
+    public boolean delete(Long id) {
         String sql = "DELETE FROM products WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
-            stmt.executeUpdate();
+            return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting product", e);
         }
@@ -163,7 +371,7 @@ public class ProductRepositoryImpl implements ProductRepository {
     public boolean existsById(Long id) {
         String sql = "SELECT COUNT(*) FROM products WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = readDataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
@@ -180,6 +388,56 @@ public class ProductRepositoryImpl implements ProductRepository {
         }
     }
 
+    @Override
+    public List<ProductSummary> findSummariesAfterId(Long lastId, int limit) {
+        String sql = "SELECT id, name, price, stock, category FROM products WHERE id > ? ORDER BY id LIMIT ?";
+        List<ProductSummary> summaries = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, lastId == null ? 0L : lastId);
+            stmt.setInt(2, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(mapResultSetToSummary(rs));
+                }
+            }
+            
+            return summaries;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding product summaries", e);
+        }
+    }
+
+    @Override
+    public List<ProductSummary> findSummariesByCategory(String category) {
+        String sql = "SELECT id, name, price, stock, category FROM products WHERE category = ? ORDER BY id";
+        List<ProductSummary> summaries = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, category);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(mapResultSetToSummary(rs));
+                }
+            }
+            
+            return summaries;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding product summaries by category", e);
+        }
+    }
+
+    private ProductSummary mapResultSetToSummary(ResultSet rs) throws SQLException {
+        return new ProductSummary(rs.getLong("id"), rs.getString("name"), rs.getBigDecimal("price"),
+                rs.getInt("stock"), rs.getString("category"));
+    }
+
     private Product mapResultSetToProduct(ResultSet rs) throws SQLException {
         Product product = new Product();
         product.setId(rs.getLong("id"));
@@ -0,0 +1,225 @@
+package com.ecommerce.repository.impl;
+
+import com.ecommerce.config.DatabaseConfig;
+import com.ecommerce.model.DailyCategorySales;
+import com.ecommerce.model.HourlyOrderStats;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.ProductSales;
+import com.ecommerce.repository.SalesRollupRepository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Each rollup is fed in two shapes: from one order's items, passed in as signed parameters for incremental
+// updates (the order may live in another database, a shard), and from every live order for a rebuild.
+// Cancelled orders never count.
+public class SalesRollupRepositoryImpl implements SalesRollupRepository {
+    private static final String UNCATEGORIZED = "Uncategorized";
+
+    // Items carry the category they were sold under, so a recategorized product's cancellations debit the
+    // row its sales credited; items written before that column existed use the product's current category
+    private static final String CATEGORY_SOURCE =
+            "SELECT CAST(o.created_at AS DATE) AS sales_date, COALESCE(oi.category, p.category, '" + UNCATEGORIZED + "') AS category, " +
+            "SUM(oi.subtotal) AS revenue, SUM(oi.quantity) AS units " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN products p ON p.id = oi.product_id ";
+    private static final String CATEGORY_GROUP = " GROUP BY CAST(o.created_at AS DATE), COALESCE(oi.category, p.category, '" + UNCATEGORIZED + "')";
+
+    private static final String PRODUCT_SOURCE =
+            "SELECT CAST(o.created_at AS DATE) AS sales_date, oi.product_id, " +
+            "SUM(oi.quantity) AS units, SUM(oi.subtotal) AS revenue " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id ";
+    private static final String PRODUCT_GROUP = " GROUP BY CAST(o.created_at AS DATE), oi.product_id";
+
+    private static final String HOURLY_SOURCE =
+            "SELECT DATE_TRUNC('HOUR', o.created_at) AS order_hour, COUNT(*) AS order_count, " +
+            "SUM(o.total_amount) AS revenue FROM orders o ";
+    private static final String HOURLY_GROUP = " GROUP BY DATE_TRUNC('HOUR', o.created_at)";
+
+    private static final String LIVE_ORDERS = "WHERE o.status <> 'CANCELLED'";
+
+    // One order's items with the sign already applied to quantity and subtotal
+    private static final String ITEM_ROW = "(CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS VARCHAR(100)), " +
+            "CAST(? AS INT), CAST(? AS DECIMAL(10, 2)))";
+    private static final String ITEM_COLUMNS = " i(sales_date, product_id, category, quantity, subtotal)";
+
+    private final DataSource dataSource;
+    private final DataSource readDataSource;
+
+    public SalesRollupRepositoryImpl() {
+        this(DatabaseConfig.getDataSource(), DatabaseConfig.getReadDataSource());
+    }
+
+    public SalesRollupRepositoryImpl(DataSource dataSource) {
+        this(dataSource, dataSource);
+    }
+
+    public SalesRollupRepositoryImpl(DataSource dataSource, DataSource readDataSource) {
+        this.dataSource = dataSource;
+        this.readDataSource = readDataSource;
+    }
+
+    @Override
+    public void applyOrder(Connection conn, Order order, int sign) {
+        List<OrderItem> items = order.getItems();
+        String itemRows = "(VALUES " + String.join(", ", Collections.nCopies(items.size(), ITEM_ROW)) + ")" + ITEM_COLUMNS;
+        String categorySql = "MERGE INTO daily_category_sales t USING (" +
+                             "SELECT i.sales_date, COALESCE(i.category, p.category, '" + UNCATEGORIZED + "') AS category, " +
+                             "SUM(i.subtotal) AS revenue, SUM(i.quantity) AS units " +
+                             "FROM " + itemRows + " JOIN products p ON p.id = i.product_id " +
+                             "GROUP BY i.sales_date, COALESCE(i.category, p.category, '" + UNCATEGORIZED + "')) s " +
+                             "ON t.sales_date = s.sales_date AND t.category = s.category " +
+                             "WHEN MATCHED THEN UPDATE SET revenue = t.revenue + s.revenue, units = t.units + s.units " +
+                             "WHEN NOT MATCHED THEN INSERT (sales_date, category, revenue, units) " +
+                             "VALUES (s.sales_date, s.category, s.revenue, s.units)";
+        String productSql = "MERGE INTO daily_product_sales t USING (" +
+                            "SELECT i.sales_date, i.product_id, SUM(i.quantity) AS units, SUM(i.subtotal) AS revenue " +
+                            "FROM " + itemRows + " GROUP BY i.sales_date, i.product_id) s " +
+                            "ON t.sales_date = s.sales_date AND t.product_id = s.product_id " +
+                            "WHEN MATCHED THEN UPDATE SET units = t.units + s.units, revenue = t.revenue + s.revenue " +
+                            "WHEN NOT MATCHED THEN INSERT (sales_date, product_id, units, revenue) " +
+                            "VALUES (s.sales_date, s.product_id, s.units, s.revenue)";
+        String hourlySql = "MERGE INTO hourly_order_stats t USING (" +
+                           "SELECT DATE_TRUNC('HOUR', CAST(? AS TIMESTAMP)) AS order_hour, CAST(? AS BIGINT) AS order_count, " +
+                           "CAST(? AS DECIMAL(10, 2)) AS revenue) s " +
+                           "ON t.order_hour = s.order_hour " +
+                           "WHEN MATCHED THEN UPDATE SET order_count = t.order_count + s.order_count, " +
+                           "revenue = t.revenue + s.revenue " +
+                           "WHEN NOT MATCHED THEN INSERT (order_hour, order_count, revenue) " +
+                           "VALUES (s.order_hour, s.order_count, s.revenue)";
+        
+        BigDecimal signum = BigDecimal.valueOf(sign);
+        Date salesDate = Date.valueOf(order.getCreatedAt().toLocalDate());
+        try {
+            // Orders opening the same day, category or hour race to insert its row
+            if (!items.isEmpty()) {
+                for (String sql : new String[] {categorySql, productSql}) {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        int index = 1;
+                        for (OrderItem item : items) {
+                            stmt.setDate(index++, salesDate);
+                            stmt.setLong(index++, item.getProductId());
+                            stmt.setString(index++, item.getCategory());
+                            stmt.setInt(index++, sign * item.getQuantity());
+                            stmt.setBigDecimal(index++, signum.multiply(item.getSubtotal()));
+                        }
+                        SqlUtils.executeUpsert(stmt);
+                    }
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(hourlySql)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(order.getCreatedAt()));
+                stmt.setLong(2, sign);
+                stmt.setBigDecimal(3, signum.multiply(order.getTotalAmount()));
+                SqlUtils.executeUpsert(stmt);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error updating sales rollups for order: " + order.getId(), e);
+        }
+    }
+
+    @Override
+    public void rebuild(Connection conn) {
+        String[] statements = {
+                "DELETE FROM daily_category_sales",
+                "DELETE FROM daily_product_sales",
+                "DELETE FROM hourly_order_stats",
+                "INSERT INTO daily_category_sales (sales_date, category, revenue, units) " +
+                        CATEGORY_SOURCE + LIVE_ORDERS + CATEGORY_GROUP,
+                "INSERT INTO daily_product_sales (sales_date, product_id, units, revenue) " +
+                        PRODUCT_SOURCE + LIVE_ORDERS + PRODUCT_GROUP,
+                "INSERT INTO hourly_order_stats (order_hour, order_count, revenue) " +
+                        HOURLY_SOURCE + LIVE_ORDERS + HOURLY_GROUP
+        };
+        
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.executeUpdate(sql);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error rebuilding sales rollups", e);
+        }
+    }
+
+    @Override
+    public List<DailyCategorySales> findDailyCategorySales(LocalDate from, LocalDate to) {
+        String sql = "SELECT sales_date, category, revenue, units FROM daily_category_sales " +
+                     "WHERE sales_date BETWEEN ? AND ? AND units > 0 ORDER BY sales_date, category";
+        List<DailyCategorySales> sales = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sales.add(new DailyCategorySales(rs.getDate("sales_date").toLocalDate(), rs.getString("category"),
+                            rs.getBigDecimal("revenue"), rs.getLong("units")));
+                }
+            }
+            
+            return sales;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding daily category sales", e);
+        }
+    }
+
+    @Override
+    public List<ProductSales> findTopProducts(LocalDate from, LocalDate to, int limit) {
+        String sql = "SELECT product_id, SUM(units) AS units, SUM(revenue) AS revenue FROM daily_product_sales " +
+                     "WHERE sales_date BETWEEN ? AND ? GROUP BY product_id HAVING SUM(units) > 0 " +
+                     "ORDER BY SUM(units) DESC, product_id LIMIT ?";
+        List<ProductSales> sales = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            stmt.setInt(3, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sales.add(new ProductSales(rs.getLong("product_id"), rs.getLong("units"), rs.getBigDecimal("revenue")));
+                }
+            }
+            
+            return sales;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding top products", e);
+        }
+    }
+
+    @Override
+    public List<HourlyOrderStats> findHourlyOrderStats(LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT order_hour, order_count, revenue FROM hourly_order_stats " +
+                     "WHERE order_hour >= ? AND order_hour < ? AND order_count > 0 ORDER BY order_hour";
+        List<HourlyOrderStats> stats = new ArrayList<>();
+        
+        try (Connection conn = readDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setTimestamp(1, Timestamp.valueOf(from));
+            stmt.setTimestamp(2, Timestamp.valueOf(to));
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    stats.add(new HourlyOrderStats(rs.getTimestamp("order_hour").toLocalDateTime(),
+                            rs.getLong("order_count"), rs.getBigDecimal("revenue")));
+                }
+            }
+            
+            return stats;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding hourly order stats", e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecommerce.repository.impl;
+
+import com.ecommerce.config.OrderShards;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.repository.OrderItemRepository;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Items live on their order's shard, which the order id encodes; item ids encode the same shard
+public class ShardedOrderItemRepository implements OrderItemRepository {
+    private final OrderShards shards;
+    private final List<OrderItemRepository> delegates = new ArrayList<>();
+
+    public ShardedOrderItemRepository(OrderShards shards) {
+        this.shards = shards;
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            delegates.add(new OrderItemRepositoryImpl(shards.getShard(shard)));
+        }
+    }
+
+    @Override
+    public OrderItem save(OrderItem orderItem) {
+        return delegates.get(shardOfOrder(orderItem.getOrderId())).save(orderItem);
+    }
+
+    @Override
+    public List<OrderItem> saveAll(Connection conn, List<OrderItem> orderItems) {
+        Map<Integer, List<OrderItem>> byShard = new LinkedHashMap<>();
+        for (OrderItem item : orderItems) {
+            byShard.computeIfAbsent(shardOfOrder(item.getOrderId()), shard -> new ArrayList<>()).add(item);
+        }
+        for (Map.Entry<Integer, List<OrderItem>> entry : byShard.entrySet()) {
+            int shard = entry.getKey();
+            shards.inTransaction(shard, shardConn -> delegates.get(shard).saveAll(shardConn, entry.getValue()));
+        }
+        return orderItems;
+    }
+
+    @Override
+    public Optional<OrderItem> findById(Long id) {
+        if (!shards.isShardedId(id)) {
+            return Optional.empty();
+        }
+        return delegates.get(OrderShards.shardOf(id)).findById(id);
+    }
+
+    @Override
+    public List<OrderItem> findByOrderId(Long orderId) {
+        if (!shards.isShardedId(orderId)) {
+            return new ArrayList<>();
+        }
+        return delegates.get(OrderShards.shardOf(orderId)).findByOrderId(orderId);
+    }
+
+    @Override
+    public Map<Long, List<OrderItem>> findByOrderIds(Collection<Long> orderIds) {
+        Map<Integer, List<Long>> byShard = new HashMap<>();
+        for (Long orderId : orderIds) {
+            if (shards.isShardedId(orderId)) {
+                byShard.computeIfAbsent(OrderShards.shardOf(orderId), shard -> new ArrayList<>()).add(orderId);
+            }
+        }
+        Map<Long, List<OrderItem>> itemsByOrderId = new HashMap<>();
+        for (Map<Long, List<OrderItem>> shardItems : shards.scatter(shard -> {
+            List<Long> ids = byShard.get(shard);
+            return ids == null ? Collections.<Long, List<OrderItem>>emptyMap() : delegates.get(shard).findByOrderIds(ids);
+        })) {
+            itemsByOrderId.putAll(shardItems);
+        }
+        return itemsByOrderId;
+    }
+
+    @Override
+    public Optional<OrderItem> update(OrderItem orderItem) {
+        if (!shards.isShardedId(orderItem.getId())) {
+            return Optional.empty();
+        }
+        return delegates.get(OrderShards.shardOf(orderItem.getId())).update(orderItem);
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        return shards.isShardedId(id) && delegates.get(OrderShards.shardOf(id)).delete(id);
+    }
+
+    @Override
+    public int deleteByOrderId(Long orderId) {
+        if (!shards.isShardedId(orderId)) {
+            return 0;
+        }
+        return delegates.get(OrderShards.shardOf(orderId)).deleteByOrderId(orderId);
+    }
+
+    @Override
+    public List<OrderItem> deleteByOrderId(Connection conn, Long orderId) {
+        if (!shards.isShardedId(orderId)) {
+            return new ArrayList<>();
+        }
+        int shard = OrderShards.shardOf(orderId);
+        return shards.inTransaction(shard, shardConn -> delegates.get(shard).deleteByOrderId(shardConn, orderId));
+    }
+
+    private int shardOfOrder(Long orderId) {
+        if (!shards.isShardedId(orderId)) {
+            throw new IllegalArgumentException("Order ID does not belong to any shard: " + orderId);
+        }
+        return OrderShards.shardOf(orderId);
+    }
+}
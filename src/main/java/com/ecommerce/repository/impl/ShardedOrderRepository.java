@@ -0,0 +1,193 @@
+package com.ecommerce.repository.impl;
+
+import com.ecommerce.config.OrderShards;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.OrderStatusTotals;
+import com.ecommerce.model.OrderSummary;
+import com.ecommerce.repository.OrderRepository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Orders live on the shard picked by their customer. Lookups by id or customer touch one shard; everything
+// else runs on all shards in parallel and is merged into the order a single database would return.
+// Connections passed in belong to the main database, so writes use the shard's connection enlisted in the
+// same transaction instead (see OrderShards.inTransaction).
+public class ShardedOrderRepository implements OrderRepository {
+    private static final Comparator<Order> BY_ID = Comparator.comparing(Order::getId);
+    private static final Comparator<Order> NEWEST_FIRST =
+            Comparator.comparing(Order::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+    private static final Comparator<OrderSummary> SUMMARY_BY_ID = Comparator.comparing(OrderSummary::getId);
+    private static final Comparator<OrderSummary> SUMMARY_NEWEST_FIRST =
+            Comparator.comparing(OrderSummary::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final OrderShards shards;
+    private final List<OrderRepository> delegates = new ArrayList<>();
+
+    public ShardedOrderRepository(OrderShards shards) {
+        this.shards = shards;
+        for (int shard = 0; shard < shards.shardCount(); shard++) {
+            delegates.add(new OrderRepositoryImpl(shards.getShard(shard)));
+        }
+    }
+
+    @Override
+    public Order save(Order order) {
+        return delegates.get(shards.shardForCustomer(order.getCustomerId())).save(order);
+    }
+
+    @Override
+    public Order save(Connection conn, Order order) {
+        int shard = shards.shardForCustomer(order.getCustomerId());
+        return shards.inTransaction(shard, shardConn -> delegates.get(shard).save(shardConn, order));
+    }
+
+    @Override
+    public List<Order> saveAll(Connection conn, List<Order> orders) {
+        Map<Integer, List<Order>> byShard = new LinkedHashMap<>();
+        for (Order order : orders) {
+            byShard.computeIfAbsent(shards.shardForCustomer(order.getCustomerId()), shard -> new ArrayList<>()).add(order);
+        }
+        for (Map.Entry<Integer, List<Order>> entry : byShard.entrySet()) {
+            int shard = entry.getKey();
+            shards.inTransaction(shard, shardConn -> delegates.get(shard).saveAll(shardConn, entry.getValue()));
+        }
+        return orders;
+    }
+
+    @Override
+    public Optional<Order> findById(Long id) {
+        if (!shards.isShardedId(id)) {
+            return Optional.empty();
+        }
+        return delegates.get(OrderShards.shardOf(id)).findById(id);
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return merge(shards.scatter(shard -> delegates.get(shard).findAll()), BY_ID);
+    }
+
+    @Override
+    public List<Order> findAfterId(Long lastId, int limit) {
+        // Each shard's first page holds every order that can make the global first page
+        List<Order> orders = merge(shards.scatter(shard -> delegates.get(shard).findAfterId(lastId, limit)), BY_ID);
+        return orders.size() > limit ? new ArrayList<>(orders.subList(0, limit)) : orders;
+    }
+
+    @Override
+    public List<OrderSummary> findSummariesAfterId(Long lastId, int limit) {
+        List<OrderSummary> summaries = merge(shards.scatter(shard ->
+                delegates.get(shard).findSummariesAfterId(lastId, limit)), SUMMARY_BY_ID);
+        return summaries.size() > limit ? new ArrayList<>(summaries.subList(0, limit)) : summaries;
+    }
+
+    @Override
+    public void streamAll(Consumer<Order> consumer) {
+        // One shard after another, since the consumer may not be thread-safe
+        for (OrderRepository delegate : delegates) {
+            delegate.streamAll(consumer);
+        }
+    }
+
+    @Override
+    public List<Order> findByCustomerId(Long customerId) {
+        return delegates.get(shards.shardForCustomer(customerId)).findByCustomerId(customerId);
+    }
+
+    @Override
+    public List<OrderSummary> findSummariesByCustomerId(Long customerId) {
+        return delegates.get(shards.shardForCustomer(customerId)).findSummariesByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Order> findByStatus(OrderStatus status) {
+        return merge(shards.scatter(shard -> delegates.get(shard).findByStatus(status)), NEWEST_FIRST);
+    }
+
+    @Override
+    public List<OrderSummary> findSummariesByStatus(OrderStatus status) {
+        return merge(shards.scatter(shard -> delegates.get(shard).findSummariesByStatus(status)), SUMMARY_NEWEST_FIRST);
+    }
+
+    @Override
+    public List<OrderStatusTotals> sumByStatus() {
+        Map<OrderStatus, long[]> counts = new EnumMap<>(OrderStatus.class);
+        Map<OrderStatus, BigDecimal> amounts = new EnumMap<>(OrderStatus.class);
+        for (List<OrderStatusTotals> shardTotals : shards.scatter(shard -> delegates.get(shard).sumByStatus())) {
+            for (OrderStatusTotals row : shardTotals) {
+                counts.computeIfAbsent(row.getStatus(), status -> new long[1])[0] += row.getOrderCount();
+                amounts.merge(row.getStatus(), row.getTotalAmount(), BigDecimal::add);
+            }
+        }
+        List<OrderStatusTotals> totals = new ArrayList<>();
+        for (Map.Entry<OrderStatus, long[]> entry : counts.entrySet()) {
+            totals.add(new OrderStatusTotals(entry.getKey(), entry.getValue()[0], amounts.get(entry.getKey())));
+        }
+        return totals;
+    }
+
+    @Override
+    public Optional<Order> update(Order order) {
+        if (!shards.isShardedId(order.getId())) {
+            return Optional.empty();
+        }
+        return delegates.get(OrderShards.shardOf(order.getId())).update(order);
+    }
+
+    @Override
+    public Optional<Order> update(Connection conn, Order order) {
+        if (!shards.isShardedId(order.getId())) {
+            return Optional.empty();
+        }
+        int shard = OrderShards.shardOf(order.getId());
+        return shards.inTransaction(shard, shardConn -> delegates.get(shard).update(shardConn, order));
+    }
+
+    @Override
+    public Optional<Order> updateStatus(Connection conn, Long id, OrderStatus expectedStatus, OrderStatus status) {
+        if (!shards.isShardedId(id)) {
+            return Optional.empty();
+        }
+        int shard = OrderShards.shardOf(id);
+        return shards.inTransaction(shard, shardConn ->
+                delegates.get(shard).updateStatus(shardConn, id, expectedStatus, status));
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        return shards.isShardedId(id) && delegates.get(OrderShards.shardOf(id)).delete(id);
+    }
+
+    @Override
+    public Optional<Order> delete(Connection conn, Long id) {
+        if (!shards.isShardedId(id)) {
+            return Optional.empty();
+        }
+        int shard = OrderShards.shardOf(id);
+        return shards.inTransaction(shard, shardConn -> delegates.get(shard).delete(shardConn, id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return shards.isShardedId(id) && delegates.get(OrderShards.shardOf(id)).existsById(id);
+    }
+
+    private static <T> List<T> merge(List<List<T>> perShard, Comparator<T> order) {
+        List<T> merged = new ArrayList<>();
+        for (List<T> rows : perShard) {
+            merged.addAll(rows);
+        }
+        merged.sort(order);
+        return merged;
+    }
+}
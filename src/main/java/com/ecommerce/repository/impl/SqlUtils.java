@@ -0,0 +1,51 @@
+package com.ecommerce.repository.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+final class SqlUtils {
+    // Chunk size for IN (...) lists; full chunks share one SQL text and therefore one cached statement
+    static final int IN_CLAUSE_CHUNK_SIZE = 500;
+    private static final int UPSERT_ATTEMPTS = 10;
+
+    private SqlUtils() {}
+
+    // Batches report the failing row's error as a chained exception, so the whole chain is checked
+    static boolean isUniqueViolation(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if ("23505".equals(current.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Runs a MERGE ... WHEN NOT MATCHED THEN INSERT that another transaction may be creating the same row for.
+    // The loser fails on the key, either at once or after the winner commits, and takes the update branch
+    // once the winner's row is visible, so it is retried with a short pause
+    static int executeUpsert(PreparedStatement stmt) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return stmt.executeUpdate();
+            } catch (SQLException e) {
+                if (!isUniqueViolation(e) || attempt == UPSERT_ATTEMPTS) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(10L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.search;
+
+public class ProductSearchHit {
+    private final Long productId;
+    private final double score;
+
+    public ProductSearchHit(Long productId, double score) {
+        this.productId = productId;
+        this.score = score;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSearchHit{" +
+                "productId=" + productId +
+                ", score=" + score +
+                '}';
+    }
+}
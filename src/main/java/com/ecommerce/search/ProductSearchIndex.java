@@ -0,0 +1,221 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// In-memory inverted index over product name, category and description. Terms are kept sorted so a prefix
+// is a range scan, and each posting holds the product's summed field weight for that term. A product must
+// match every query term; its score is the sum of weight * idf over the terms, with prefix-only matches
+// discounted. Searches share a read lock; changes and rebuilds take the write lock.
+public class ProductSearchIndex {
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_DISCOUNT = 0.5;
+    // A one-letter prefix can expand to much of the dictionary; capping it keeps search cost independent of
+    // catalog size at the price of missing some matches for very short prefixes
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final Comparator<ProductSearchHit> RANKING =
+            Comparator.comparingDouble(ProductSearchHit::getScore).reversed().thenComparing(ProductSearchHit::getProductId);
+
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Searches wait for the whole rebuild, and changes made meanwhile are applied after it, so a product
+    // updated while the table is being read still ends up current
+    public void rebuild(ProductRepository productRepository) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            productRepository.streamAll(this::addDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // category, minPrice and maxPrice are optional filters
+    public List<ProductSearchHit> search(String query, String category, BigDecimal minPrice, BigDecimal maxPrice, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : queryTerms) {
+                Map<Long, Double> termScores = scoreTerm(term, scores);
+                if (termScores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                if (scores != null) {
+                    for (Map.Entry<Long, Double> entry : termScores.entrySet()) {
+                        entry.setValue(entry.getValue() + scores.get(entry.getKey()));
+                    }
+                }
+                scores = termScores;
+            }
+            
+            // Keep the best limit hits in a min-heap instead of sorting every match
+            PriorityQueue<ProductSearchHit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                if (!documents.get(entry.getKey()).matches(category, minPrice, maxPrice)) {
+                    continue;
+                }
+                best.add(new ProductSearchHit(entry.getKey(), entry.getValue()));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<ProductSearchHit> hits = new ArrayList<>(best);
+            hits.sort(RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Scores one query term over exact and prefix matches, restricted to the candidates so far when given
+    private Map<Long, Double> scoreTerm(String term, Map<Long, Double> candidates) {
+        Map<Long, Double> scores = new HashMap<>();
+        addMatches(scores, term, postings.get(term), 1.0, candidates);
+        int expansions = 0;
+        for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+            if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            addMatches(scores, entry.getKey(), entry.getValue(), PREFIX_DISCOUNT, candidates);
+        }
+        return scores;
+    }
+
+    private void addMatches(Map<Long, Double> scores, String term, Map<Long, Integer> posting, double factor,
+                            Map<Long, Double> candidates) {
+        if (posting == null) {
+            return;
+        }
+        double idf = Math.log(1.0 + (double) documents.size() / posting.size());
+        for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+            if (candidates != null && !candidates.containsKey(entry.getKey())) {
+                continue;
+            }
+            // The best matching form of a query term counts, not the sum over every word it prefixes
+            scores.merge(entry.getKey(), entry.getValue() * idf * factor, Math::max);
+        }
+    }
+
+    private void addDocument(Product product) {
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getCategory(), CATEGORY_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(product.getId(), entry.getValue());
+        }
+        documents.put(product.getId(), new Document(weights.keySet(), product.getCategory(), product.getPrice()));
+    }
+
+    private void removeDocument(Long productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addField(Map<String, Integer> weights, String text, int weight) {
+        // A word repeated within one field counts once; the same word in several fields adds up
+        for (String term : new LinkedHashSet<>(tokenize(text))) {
+            weights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    // Lower-cased runs of letters and digits, so "Sony WH-1000XM5" yields sony, wh and 1000xm5
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String term : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static final class Document {
+        private final Set<String> terms;
+        private final String category;
+        private final BigDecimal price;
+        
+        Document(Set<String> terms, String category, BigDecimal price) {
+            this.terms = terms;
+            this.category = category;
+            this.price = price;
+        }
+        
+        boolean matches(String category, BigDecimal minPrice, BigDecimal maxPrice) {
+            if (category != null && !category.equalsIgnoreCase(this.category)) {
+                return false;
+            }
+            if (minPrice != null && (price == null || price.compareTo(minPrice) < 0)) {
+                return false;
+            }
+            return maxPrice == null || (price != null && price.compareTo(maxPrice) <= 0);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.DailyCategorySales;
+import com.ecommerce.model.HourlyOrderStats;
+import com.ecommerce.model.ProductSales;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AnalyticsService {
+    List<DailyCategorySales> getDailyCategoryRevenue(LocalDate from, LocalDate to);
+    List<ProductSales> getTopProducts(LocalDate from, LocalDate to, int limit);
+    List<HourlyOrderStats> getHourlyOrderCounts(LocalDateTime from, LocalDateTime to);
+    BigDecimal getAverageOrderValue(LocalDate from, LocalDate to);
+    void rebuildRollups();
+}
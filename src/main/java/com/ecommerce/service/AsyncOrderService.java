@@ -0,0 +1,15 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncOrderService {
+    CompletableFuture<Order> createOrder(Long customerId, List<OrderItem> items);
+    CompletableFuture<Order> getOrderById(Long id);
+    CompletableFuture<List<Order>> getOrdersByCustomerId(Long customerId);
+    CompletableFuture<List<Order>> getOrdersByStatus(String status);
+    CompletableFuture<Order> updateOrderStatus(Long orderId, String status);
+    CompletableFuture<Void> cancelOrder(Long orderId);
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.ImportResult;
+import java.io.Reader;
+
+public interface BulkImportService {
+    ImportResult importProducts(Reader csv);
+    ImportResult importCustomers(Reader csv);
+}
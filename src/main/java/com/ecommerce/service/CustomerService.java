@@ -1,14 +1,21 @@
 package com.ecommerce.service;
 
 import com.ecommerce.model.Customer;
+import com.ecommerce.model.CustomerOrderStats;
+import com.ecommerce.model.CustomerSummary;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CustomerService {
     Customer createCustomer(Customer customer);
     Customer getCustomerById(Long id);
     Customer getCustomerByEmail(String email);
     List<Customer> getAllCustomers();
+    List<Customer> getCustomersAfterId(Long lastId, int limit);
+    List<CustomerSummary> getCustomerSummaries(Long lastId, int limit);
+    void forEachCustomer(Consumer<Customer> consumer);
     Customer updateCustomer(Long id, Customer customer);
     void deleteCustomer(Long id);
     boolean customerExists(Long id);
+    CustomerOrderStats getCustomerOrderStats(Long customerId);
 }
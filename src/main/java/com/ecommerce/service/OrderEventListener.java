@@ -0,0 +1,14 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderStatus;
+import java.sql.Connection;
+
+// Called inside the transaction that made the change, with the order's items attached; work that must wait
+// for the commit should be deferred with TransactionManager.afterCommit. Orders may live in another database
+// than conn (a shard), so listeners work from the Order rather than reading it back.
+public interface OrderEventListener {
+    void onOrderPlaced(Connection conn, Order order);
+    void onStatusChanged(Connection conn, Order order, OrderStatus previousStatus);
+    void onOrderDeleted(Connection conn, Order order);
+}
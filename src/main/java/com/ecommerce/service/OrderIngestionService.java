@@ -0,0 +1,10 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface OrderIngestionService {
+    CompletableFuture<Order> submit(Long customerId, List<OrderItem> items);
+}
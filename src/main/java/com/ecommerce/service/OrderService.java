@@ -2,15 +2,29 @@ package com.ecommerce.service;
 
 import com.ecommerce.model.Order;
 import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.OrderSummary;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OrderService {
     Order createOrder(Long customerId, List<OrderItem> items);
     Order getOrderById(Long id);
     List<Order> getAllOrders();
+    List<Order> getOrdersAfterId(Long lastId, int limit);
+    List<OrderSummary> getOrderSummaries(Long lastId, int limit);
+    void forEachOrder(Consumer<Order> consumer);
     List<Order> getOrdersByCustomerId(Long customerId);
+    List<OrderSummary> getOrderSummariesByCustomerId(Long customerId);
     List<Order> getOrdersByStatus(String status);
+    List<Order> getOrdersByStatus(OrderStatus status);
+    List<OrderSummary> getOrderSummariesByStatus(String status);
+    List<OrderSummary> getOrderSummariesByStatus(OrderStatus status);
+    long countByStatus(OrderStatus status);
+    BigDecimal sumTotalByStatus(OrderStatus status);
     Order updateOrderStatus(Long orderId, String status);
+    Order updateOrderStatus(Long orderId, OrderStatus status);
     void cancelOrder(Long orderId);
     void deleteOrder(Long id);
 }
@@ -1,14 +1,22 @@
 package com.ecommerce.service;
 
 import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductSummary;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductService {
     Product createProduct(Product product);
     Product getProductById(Long id);
     List<Product> getAllProducts();
+    List<Product> getProductsAfterId(Long lastId, int limit);
+    List<ProductSummary> getProductSummaries(Long lastId, int limit);
+    void forEachProduct(Consumer<Product> consumer);
     List<Product> getProductsByCategory(String category);
+    List<ProductSummary> getProductSummariesByCategory(String category);
     List<Product> getProductsByPriceRange(Double minPrice, Double maxPrice);
+    List<Product> searchProducts(String query, int limit);
+    List<Product> searchProducts(String query, String category, Double minPrice, Double maxPrice, int limit);
     Product updateProduct(Long id, Product product);
     void deleteProduct(Long id);
     boolean isProductAvailable(Long productId, Integer quantity);
@@ -0,0 +1,106 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.config.TransactionManager;
+import com.ecommerce.model.DailyCategorySales;
+import com.ecommerce.model.HourlyOrderStats;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.ProductSales;
+import com.ecommerce.repository.SalesRollupRepository;
+import com.ecommerce.service.AnalyticsService;
+import com.ecommerce.service.OrderEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Answers sales questions from rollup tables that move in the same transaction as the orders they count.
+// Rollups are keyed by the order's creation time, so cancelling or deleting an order takes it back out of
+// the day and hour it was placed in.
+public class AnalyticsServiceImpl implements AnalyticsService, OrderEventListener {
+    private final SalesRollupRepository salesRollupRepository;
+    private final TransactionManager transactionManager;
+
+    public AnalyticsServiceImpl(SalesRollupRepository salesRollupRepository, TransactionManager transactionManager) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    public List<DailyCategorySales> getDailyCategoryRevenue(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return salesRollupRepository.findDailyCategorySales(from, to);
+    }
+
+    @Override
+    public List<ProductSales> getTopProducts(LocalDate from, LocalDate to, int limit) {
+        validateRange(from, to);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+        return salesRollupRepository.findTopProducts(from, to, limit);
+    }
+
+    @Override
+    public List<HourlyOrderStats> getHourlyOrderCounts(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Invalid time range: " + from + " to " + to);
+        }
+        return salesRollupRepository.findHourlyOrderStats(from, to);
+    }
+
+    @Override
+    public BigDecimal getAverageOrderValue(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        long orderCount = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (HourlyOrderStats stats : salesRollupRepository.findHourlyOrderStats(from.atStartOfDay(),
+                to.plusDays(1).atStartOfDay())) {
+            orderCount += stats.getOrderCount();
+            revenue = revenue.add(stats.getRevenue());
+        }
+        if (orderCount == 0) {
+            return BigDecimal.ZERO;
+        }
+        return revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public void rebuildRollups() {
+        // Rebuilds from scratch; orders committed while it runs may be counted twice until the next rebuild
+        transactionManager.execute(conn -> {
+            salesRollupRepository.rebuild(conn);
+            return null;
+        });
+    }
+
+    @Override
+    public void onOrderPlaced(Connection conn, Order order) {
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            salesRollupRepository.applyOrder(conn, order, 1);
+        }
+    }
+
+    @Override
+    public void onStatusChanged(Connection conn, Order order, OrderStatus previousStatus) {
+        if (order.getStatus() == OrderStatus.CANCELLED && previousStatus != OrderStatus.CANCELLED) {
+            salesRollupRepository.applyOrder(conn, order, -1);
+        }
+    }
+
+    @Override
+    public void onOrderDeleted(Connection conn, Order order) {
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            salesRollupRepository.applyOrder(conn, order, -1);
+        }
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid date range: " + from + " to " + to);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.config.ReadRoutingDataSource;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.Product;
+import com.ecommerce.service.AsyncOrderService;
+import com.ecommerce.service.CustomerService;
+import com.ecommerce.service.ProductService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+public class AsyncOrderServiceImpl implements AsyncOrderService {
+    private final OrderServiceImpl orderService;
+    private final CustomerService customerService;
+    private final ProductService productService;
+    private final Executor executor;
+
+    // The executor should be bounded (see BoundedExecutors) so a burst of orders waits instead of piling up
+    public AsyncOrderServiceImpl(OrderServiceImpl orderService,
+                                 CustomerService customerService,
+                                 ProductService productService,
+                                 Executor executor) {
+        this.orderService = orderService;
+        this.customerService = customerService;
+        this.productService = productService;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Order> createOrder(Long customerId, List<OrderItem> items) {
+        try {
+            OrderServiceImpl.validateItems(items);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        // The customer check and every distinct product lookup are independent reads, so they run in parallel.
+        // The customer check reads the primary, as in OrderServiceImpl.createOrder
+        CompletableFuture<Void> customerCheck = submit(() -> {
+            if (!ReadRoutingDataSource.onPrimary(() -> customerService.customerExists(customerId))) {
+                throw new RuntimeException("Customer not found with id: " + customerId);
+            }
+            return null;
+        });
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (OrderItem item : items) {
+            productIds.add(item.getProductId());
+        }
+        List<CompletableFuture<Product>> lookups = new ArrayList<>(productIds.size() + 1);
+        for (Long productId : productIds) {
+            lookups.add(submit(() -> productService.getProductById(productId)));
+        }
+        
+        List<CompletableFuture<?>> reads = new ArrayList<>(lookups);
+        reads.add(customerCheck);
+        // The write runs on whichever worker finished the last read. Submitting it as a new task would have
+        // workers wait on their own full queue, failing orders that were already admitted
+        return CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    Map<Long, Product> products = new HashMap<>();
+                    for (CompletableFuture<Product> lookup : lookups) {
+                        Product product = lookup.join();
+                        products.put(product.getId(), product);
+                    }
+                    return orderService.placeOrder(customerId, items, products);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Order> getOrderById(Long id) {
+        return submit(() -> orderService.getOrderById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Order>> getOrdersByCustomerId(Long customerId) {
+        return submit(() -> orderService.getOrdersByCustomerId(customerId));
+    }
+
+    @Override
+    public CompletableFuture<List<Order>> getOrdersByStatus(String status) {
+        return submit(() -> orderService.getOrdersByStatus(status));
+    }
+
+    @Override
+    public CompletableFuture<Order> updateOrderStatus(Long orderId, String status) {
+        return submit(() -> orderService.updateOrderStatus(orderId, status));
+    }
+
+    @Override
+    public CompletableFuture<Void> cancelOrder(Long orderId) {
+        return submit(() -> {
+            orderService.cancelOrder(orderId);
+            return null;
+        });
+    }
+
+    // A saturated executor rejects on submit; surface that through the future like any other failure
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.config.TransactionManager;
+import com.ecommerce.model.Customer;
+import com.ecommerce.model.ImportResult;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.RejectedRow;
+import com.ecommerce.repository.CustomerRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.service.BulkImportService;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class BulkImportServiceImpl implements BulkImportService {
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final TransactionManager transactionManager;
+    private final int batchSize;
+    private final int chunkSize;
+    private volatile ProductSearchIndex searchIndex;
+
+    public BulkImportServiceImpl(ProductRepository productRepository,
+                                 CustomerRepository customerRepository,
+                                 TransactionManager transactionManager) {
+        this(productRepository, customerRepository, transactionManager, 500, 5000);
+    }
+
+    // batchSize rows go into each executeBatch; chunkSize rows are committed per transaction
+    public BulkImportServiceImpl(ProductRepository productRepository,
+                                 CustomerRepository customerRepository,
+                                 TransactionManager transactionManager,
+                                 int batchSize,
+                                 int chunkSize) {
+        if (batchSize <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Batch and chunk sizes must be greater than zero");
+        }
+        this.productRepository = productRepository;
+        this.customerRepository = customerRepository;
+        this.transactionManager = transactionManager;
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    // Imported products are added to this index as their chunk commits, so searches find them without a rebuild
+    public void setSearchIndex(ProductSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public ImportResult importProducts(Reader csv) {
+        return importRows(csv, new String[]{"name", "price", "stock"}, this::mapProduct, this::writeProducts);
+    }
+
+    @Override
+    public ImportResult importCustomers(Reader csv) {
+        return importRows(csv, new String[]{"name", "email"}, this::mapCustomer, this::writeCustomers);
+    }
+
+    private Product mapProduct(Map<String, Integer> columns, List<String> record) {
+        Product product = new Product();
+        product.setName(field(columns, record, "name"));
+        product.setDescription(field(columns, record, "description"));
+        product.setCategory(field(columns, record, "category"));
+        String price = field(columns, record, "price");
+        String stock = field(columns, record, "stock");
+        try {
+            product.setPrice(price == null ? null : new BigDecimal(price));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price: " + price);
+        }
+        try {
+            product.setStock(stock == null ? null : Integer.valueOf(stock));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid stock: " + stock);
+        }
+        ProductServiceImpl.validate(product);
+        return product;
+    }
+
+    private Customer mapCustomer(Map<String, Integer> columns, List<String> record) {
+        Customer customer = new Customer();
+        customer.setName(field(columns, record, "name"));
+        customer.setEmail(field(columns, record, "email"));
+        customer.setPhone(field(columns, record, "phone"));
+        customer.setAddress(field(columns, record, "address"));
+        CustomerServiceImpl.validate(customer);
+        return customer;
+    }
+
+    private List<RejectedRow> writeProducts(Connection conn, List<PendingRow<Product>> rows) {
+        List<Product> products = new ArrayList<>(rows.size());
+        for (PendingRow<Product> row : rows) {
+            products.add(row.value);
+        }
+        saveInBatches(products, batch -> productRepository.saveAll(conn, batch));
+        ProductSearchIndex index = searchIndex;
+        if (index != null) {
+            TransactionManager.afterCommit(() -> products.forEach(index::index));
+        }
+        return new ArrayList<>();
+    }
+
+    private List<RejectedRow> writeCustomers(Connection conn, List<PendingRow<Customer>> rows) {
+        List<String> emails = new ArrayList<>(rows.size());
+        for (PendingRow<Customer> row : rows) {
+            emails.add(row.value.getEmail());
+        }
+        // Earlier chunks are already committed, so one lookup per chunk also catches duplicates across chunks
+        Set<String> taken = customerRepository.findExistingEmails(conn, emails);
+        Set<String> seen = new HashSet<>();
+        List<RejectedRow> rejected = new ArrayList<>();
+        List<Customer> customers = new ArrayList<>(rows.size());
+        for (PendingRow<Customer> row : rows) {
+            String email = row.value.getEmail();
+            if (taken.contains(email) || !seen.add(email)) {
+                rejected.add(new RejectedRow(row.lineNumber, "Email already registered: " + email));
+            } else {
+                customers.add(row.value);
+            }
+        }
+        saveInBatches(customers, batch -> customerRepository.saveAll(conn, batch));
+        return rejected;
+    }
+
+    private <T> void saveInBatches(List<T> values, BatchWriter<T> writer) {
+        for (int from = 0; from < values.size(); from += batchSize) {
+            writer.write(values.subList(from, Math.min(from + batchSize, values.size())));
+        }
+    }
+
+    private <T> ImportResult importRows(Reader csv, String[] requiredColumns,
+                                        RowMapper<T> mapper, ChunkWriter<T> writer) {
+        ImportResult result = new ImportResult(MAX_REPORTED_REJECTIONS);
+        try (CsvReader reader = new CsvReader(csv)) {
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                return result;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String column : requiredColumns) {
+                if (!columns.containsKey(column)) {
+                    throw new IllegalArgumentException("Missing required column: " + column);
+                }
+            }
+            
+            List<PendingRow<T>> chunk = new ArrayList<>(chunkSize);
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                result.rowRead();
+                try {
+                    chunk.add(new PendingRow<>(reader.getRecordLineNumber(), mapper.map(columns, record)));
+                } catch (IllegalArgumentException e) {
+                    result.reject(reader.getRecordLineNumber(), e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    flush(chunk, writer, result);
+                    chunk.clear();
+                }
+            }
+            flush(chunk, writer, result);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading import file", e);
+        }
+    }
+
+    private <T> void flush(List<PendingRow<T>> chunk, ChunkWriter<T> writer, ImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<RejectedRow> skipped;
+        try {
+            skipped = transactionManager.execute(conn -> writer.write(conn, chunk));
+        } catch (RuntimeException e) {
+            // The chunk was rolled back as a whole, so every row in it is reported
+            String reason = "Chunk rolled back: " + e.getMessage();
+            for (PendingRow<T> row : chunk) {
+                result.reject(row.lineNumber, reason);
+            }
+            return;
+        }
+        for (RejectedRow row : skipped) {
+            result.reject(row.getLineNumber(), row.getReason());
+        }
+        result.rowsImported(chunk.size() - skipped.size());
+    }
+
+    private static String field(Map<String, Integer> columns, List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static final class PendingRow<T> {
+        private final long lineNumber;
+        private final T value;
+        
+        PendingRow(long lineNumber, T value) {
+            this.lineNumber = lineNumber;
+            this.value = value;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(Map<String, Integer> columns, List<String> record);
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        List<RejectedRow> write(Connection conn, List<PendingRow<T>> rows);
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+        void write(List<T> batch);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.config.TransactionManager;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.repository.CustomerOrderStatsRepository;
+import com.ecommerce.service.OrderEventListener;
+
+import java.sql.Connection;
+
+// Keeps customer_order_stats in step with the orders table inside each order's own transaction
+public class CustomerOrderStatsListener implements OrderEventListener {
+    private final CustomerOrderStatsRepository statsRepository;
+    private final TransactionManager transactionManager;
+
+    public CustomerOrderStatsListener(CustomerOrderStatsRepository statsRepository,
+                                      TransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    public void onOrderPlaced(Connection conn, Order order) {
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            statsRepository.addOrder(conn, order);
+        }
+    }
+
+    @Override
+    public void onStatusChanged(Connection conn, Order order, OrderStatus previousStatus) {
+        if (order.getStatus() == OrderStatus.CANCELLED && previousStatus != OrderStatus.CANCELLED) {
+            statsRepository.removeOrder(conn, order);
+        }
+    }
+
+    @Override
+    public void onOrderDeleted(Connection conn, Order order) {
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            statsRepository.removeOrder(conn, order);
+        }
+    }
+
+    // Repair job: rebuilds every customer's row from the orders table and returns how many were written
+    public int recomputeAll() {
+        return transactionManager.execute(statsRepository::recomputeAll);
+    }
+}
@@ -1,32 +1,56 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.exception.DuplicateKeyException;
 import com.ecommerce.model.Customer;
+import com.ecommerce.model.CustomerOrderStats;
+import com.ecommerce.model.CustomerSummary;
+import com.ecommerce.repository.CustomerOrderStatsRepository;
 import com.ecommerce.repository.CustomerRepository;
+import com.ecommerce.repository.impl.CustomerOrderStatsRepositoryImpl;
 import com.ecommerce.service.CustomerService;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public class CustomerServiceImpl implements CustomerService {
     private final CustomerRepository customerRepository;
+    private final CustomerOrderStatsRepository customerOrderStatsRepository;
 
     public CustomerServiceImpl(CustomerRepository customerRepository) {
+        this(customerRepository, new CustomerOrderStatsRepositoryImpl());
+    }
+
+    public CustomerServiceImpl(CustomerRepository customerRepository,
+                               CustomerOrderStatsRepository customerOrderStatsRepository) {
         this.customerRepository = customerRepository;
+        this.customerOrderStatsRepository = customerOrderStatsRepository;
     }
 
     @Override
     public Customer createCustomer(Customer customer) {
+        validate(customer);
+        
+        if (customerRepository.existsByEmail(customer.getEmail())) {
+            throw new IllegalArgumentException("Email already registered: " + customer.getEmail());
+        }
+        
+        // The pre-check can miss a concurrent sign-up; the unique constraint reports it the same way
+        try {
+            return customerRepository.save(customer);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("Email already registered: " + customer.getEmail(), e);
+        }
+    }
+
+    static void validate(Customer customer) {
         if (customer.getName() == null || customer.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Customer name cannot be empty");
         }
         if (customer.getEmail() == null || !customer.getEmail().contains("@")) {
             throw new IllegalArgumentException("Invalid email address");
         }
-        
-        if (customerRepository.findByEmail(customer.getEmail()).isPresent()) {
-            throw new IllegalArgumentException("Email already registered: " + customer.getEmail());
-        }
-        
-        return customerRepository.save(customer);
     }
 
     @Override
@@ -47,25 +71,60 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    public Customer updateCustomer(Long id, Customer customer) {
-        if (!customerRepository.existsById(id)) {
-            throw new RuntimeException("Customer not found with id: " + id);
+    public List<Customer> getCustomersAfterId(Long lastId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        return customerRepository.findAfterId(lastId, limit);
+    }
+
+    @Override
+    public List<CustomerSummary> getCustomerSummaries(Long lastId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
         }
+        return customerRepository.findSummariesAfterId(lastId, limit);
+    }
+
+    @Override
+    public void forEachCustomer(Consumer<Customer> consumer) {
+        customerRepository.streamAll(consumer);
+    }
+
+    @Override
+    public Customer updateCustomer(Long id, Customer customer) {
         customer.setId(id);
-        customerRepository.update(customer);
-        return customerRepository.findById(id).orElseThrow();
+        Optional<Customer> updated;
+        try {
+            updated = customerRepository.update(customer);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("Email already registered: " + customer.getEmail(), e);
+        }
+        return updated.orElseThrow(() -> new RuntimeException("Customer not found with id: " + id));
     }
 
     @Override
     public void deleteCustomer(Long id) {
-        if (!customerRepository.existsById(id)) {
+        if (!customerRepository.delete(id)) {
             throw new RuntimeException("Customer not found with id: " + id);
         }
-        customerRepository.delete(id);
     }
 
     @Override
     public boolean customerExists(Long id) {
         return customerRepository.existsById(id);
     }
+
+    @Override
+    public CustomerOrderStats getCustomerOrderStats(Long customerId) {
+        Optional<CustomerOrderStats> stats = customerOrderStatsRepository.findByCustomerId(customerId);
+        if (stats.isPresent()) {
+            return stats.get();
+        }
+        // No row just means no orders yet
+        if (!customerRepository.existsById(customerId)) {
+            throw new RuntimeException("Customer not found with id: " + customerId);
+        }
+        return new CustomerOrderStats(customerId, 0, BigDecimal.ZERO.setScale(2), null);
+    }
 }
@@ -0,0 +1,291 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.config.ReadRoutingDataSource;
+import com.ecommerce.config.TransactionManager;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.CustomerRepository;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.OrderEventListener;
+import com.ecommerce.service.OrderIngestionService;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Group commit: orders queue up and a single writer places each micro-batch in one transaction,
+// trading up to maxBatchDelay of latency for one commit per batch instead of one per order
+public class OrderIngestionServiceImpl implements OrderIngestionService, AutoCloseable {
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final TransactionManager transactionManager;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final BlockingQueue<PendingOrder> queue;
+    private final Thread writer;
+    private final List<OrderEventListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+
+    public OrderIngestionServiceImpl(OrderRepository orderRepository,
+                                     OrderItemRepository orderItemRepository,
+                                     ProductRepository productRepository,
+                                     CustomerRepository customerRepository,
+                                     TransactionManager transactionManager,
+                                     int maxBatchSize,
+                                     Duration maxBatchDelay,
+                                     int queueCapacity) {
+        if (maxBatchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be greater than zero");
+        }
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.productRepository = productRepository;
+        this.customerRepository = customerRepository;
+        this.transactionManager = transactionManager;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = maxBatchDelay.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::runWriter, "order-ingestion");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void addListener(OrderEventListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public CompletableFuture<Order> submit(Long customerId, List<OrderItem> items) {
+        try {
+            OrderServiceImpl.validateItems(items);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Order ingestion is shut down"));
+        }
+        PendingOrder pending = new PendingOrder(customerId, new ArrayList<>(items));
+        if (!queue.offer(pending)) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Order ingestion queue is full"));
+        }
+        return pending.future;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything that slipped in after the writer's last drain is refused rather than left hanging
+        PendingOrder pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new RejectedExecutionException("Order ingestion is shut down"));
+        }
+    }
+
+    private void runWriter() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // The batch closes when it is full or maxBatchDelay after its first order, whichever comes first
+                long deadline = System.nanoTime() + maxBatchDelayNanos;
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<PendingOrder> batch) {
+        try {
+            transactionManager.execute(conn -> {
+                write(conn, batch);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            // One bad order must not sink the rest of its batch, so each is retried on its own
+            for (PendingOrder pending : batch) {
+                pending.failure = null;
+                process(List.of(pending));
+            }
+            return;
+        }
+        
+        // Callers only hear back once the batch they rode in has committed
+        for (PendingOrder pending : batch) {
+            if (pending.failure != null) {
+                pending.future.completeExceptionally(pending.failure);
+            } else {
+                pending.future.complete(pending.order);
+            }
+        }
+    }
+
+    private void write(Connection conn, List<PendingOrder> batch) {
+        // Validate the whole batch against one lookup of its customers and products
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (PendingOrder pending : batch) {
+            customerIds.add(pending.customerId);
+            for (OrderItem item : pending.items) {
+                productIds.add(item.getProductId());
+            }
+        }
+        Set<Long> customers = customerRepository.findExistingIds(conn, customerIds);
+        // Prices and stock are checked against the primary, like the stock updates they lead to
+        Map<Long, Product> products = ReadRoutingDataSource.onPrimary(() -> productRepository.findByIds(productIds));
+        
+        List<PendingOrder> accepted = new ArrayList<>(batch.size());
+        Map<Long, Integer> batchDeltas = new HashMap<>();
+        for (PendingOrder pending : batch) {
+            if (price(pending, customers, products)) {
+                accepted.add(pending);
+                pending.stockDeltas.forEach((productId, delta) -> batchDeltas.merge(productId, delta, Integer::sum));
+            }
+        }
+        
+        // Usually the whole batch fits and one statement reserves its stock; otherwise allocate order by order
+        List<Long> rejected = productRepository.adjustStockBatch(conn, batchDeltas);
+        if (!rejected.isEmpty()) {
+            undo(conn, batchDeltas, rejected);
+            List<PendingOrder> allocated = new ArrayList<>(accepted.size());
+            for (PendingOrder pending : accepted) {
+                List<Long> shortages = productRepository.adjustStockBatch(conn, pending.stockDeltas);
+                if (shortages.isEmpty()) {
+                    allocated.add(pending);
+                } else {
+                    undo(conn, pending.stockDeltas, shortages);
+                    pending.failure = new IllegalArgumentException("Insufficient stock for product: "
+                            + products.get(shortages.get(0)).getName());
+                }
+            }
+            accepted = allocated;
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        
+        List<Order> orders = new ArrayList<>(accepted.size());
+        for (PendingOrder pending : accepted) {
+            orders.add(pending.order);
+        }
+        orderRepository.saveAll(conn, orders);
+        List<OrderItem> items = new ArrayList<>();
+        for (PendingOrder pending : accepted) {
+            for (OrderItem item : pending.items) {
+                item.setOrderId(pending.order.getId());
+            }
+            items.addAll(pending.items);
+        }
+        orderItemRepository.saveAll(conn, items);
+        for (Order order : orders) {
+            for (OrderEventListener listener : listeners) {
+                listener.onOrderPlaced(conn, order);
+            }
+        }
+    }
+
+    // Prices the order and records its stock deltas; returns false after recording why it was refused
+    private static boolean price(PendingOrder pending, Set<Long> customers, Map<Long, Product> products) {
+        if (!customers.contains(pending.customerId)) {
+            pending.failure = new RuntimeException("Customer not found with id: " + pending.customerId);
+            return false;
+        }
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        pending.stockDeltas.clear();
+        for (OrderItem item : pending.items) {
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                pending.failure = new RuntimeException("Product not found with id: " + item.getProductId());
+                return false;
+            }
+            item.setUnitPrice(product.getPrice());
+            item.setCategory(product.getCategory());
+            BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            item.setSubtotal(subtotal);
+            totalAmount = totalAmount.add(subtotal);
+            pending.stockDeltas.merge(item.getProductId(), -item.getQuantity(), Integer::sum);
+        }
+        
+        Order order = new Order();
+        order.setCustomerId(pending.customerId);
+        order.setTotalAmount(totalAmount);
+        order.setStatus(OrderStatus.PENDING);
+        order.setItems(pending.items);
+        pending.order = order;
+        return true;
+    }
+
+    // Reverses the deltas that were applied, i.e. every one not in rejected
+    private void undo(Connection conn, Map<Long, Integer> deltas, List<Long> rejected) {
+        Map<Long, Integer> reverse = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+            if (!rejected.contains(entry.getKey())) {
+                reverse.put(entry.getKey(), -entry.getValue());
+            }
+        }
+        if (!reverse.isEmpty()) {
+            productRepository.adjustStockBatch(conn, reverse);
+        }
+    }
+
+    private static final class PendingOrder {
+        private final Long customerId;
+        private final List<OrderItem> items;
+        private final Map<Long, Integer> stockDeltas = new HashMap<>();
+        private final CompletableFuture<Order> future = new CompletableFuture<>();
+        private Order order;
+        private RuntimeException failure;
+
+        PendingOrder(Long customerId, List<OrderItem> items) {
+            this.customerId = customerId;
+            this.items = items;
+        }
+    }
+}
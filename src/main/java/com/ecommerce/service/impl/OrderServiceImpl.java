@@ -1,77 +1,159 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.config.DatabaseConfig;
+import com.ecommerce.config.ReadRoutingDataSource;
+import com.ecommerce.config.TransactionManager;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.OrderSummary;
 import com.ecommerce.model.Product;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.impl.ProductRepositoryImpl;
 import com.ecommerce.service.OrderService;
 import com.ecommerce.service.ProductService;
 import com.ecommerce.service.CustomerService;
+import com.ecommerce.service.OrderEventListener;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class OrderServiceImpl implements OrderService {
+    private static final int STREAM_PAGE_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
-    private final ProductService productService;
+    private final ProductRepository productRepository;
     private final CustomerService customerService;
+    private final TransactionManager transactionManager;
+    private final List<OrderEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final OrderStatusCounters statusCounters;
 
+    // Products are read and stock written straight through the database here, past any cache or stock ledger
+    // behind productService; pass the service's ProductRepository explicitly instead
+    @Deprecated
     public OrderServiceImpl(OrderRepository orderRepository, 
                            OrderItemRepository orderItemRepository,
                            ProductService productService,
                            CustomerService customerService) {
+        this(orderRepository, orderItemRepository, new ProductRepositoryImpl(), productService, customerService,
+             new TransactionManager(DatabaseConfig.getDataSource()));
+    }
+
+    public OrderServiceImpl(OrderRepository orderRepository, 
+                           OrderItemRepository orderItemRepository,
+                           ProductRepository productRepository,
+                           ProductService productService,
+                           CustomerService customerService,
+                           TransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
-        this.productService = productService;
+        this.productRepository = productRepository;
         this.customerService = customerService;
+        this.transactionManager = transactionManager;
+        this.statusCounters = new OrderStatusCounters(orderRepository);
+        addListener(statusCounters);
+    }
+
+    public void addListener(OrderEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public OrderStatusCounters getStatusCounters() {
+        return statusCounters;
     }
 
     @Override
     public Order createOrder(Long customerId, List<OrderItem> items) {
-        // Validate customer exists
-        if (!customerService.customerExists(customerId)) {
+        // Validate customer exists; on the primary so a customer registered a moment ago is visible
+        if (!ReadRoutingDataSource.onPrimary(() -> customerService.customerExists(customerId))) {
             throw new RuntimeException("Customer not found with id: " + customerId);
         }
         
-        // Validate items
+        validateItems(items);
+        
+        // One lookup for every product, on the primary like the stock updates it leads to
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (OrderItem item : items) {
+            productIds.add(item.getProductId());
+        }
+        Map<Long, Product> products = ReadRoutingDataSource.onPrimary(() -> productRepository.findByIds(productIds));
+        for (Long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new RuntimeException("Product not found with id: " + productId);
+            }
+        }
+        return placeOrder(customerId, items, products);
+    }
+
+    static void validateItems(List<OrderItem> items) {
         if (items == null || items.isEmpty()) {
             throw new IllegalArgumentException("Order must have at least one item");
         }
-        
+        for (OrderItem item : items) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Item quantity must be greater than zero");
+            }
+        }
+    }
+
+    // Writes an order whose customer and items were already validated; products holds every referenced product
+    Order placeOrder(Long customerId, List<OrderItem> items, Map<Long, Product> products) {
         // Calculate total and validate stock
         BigDecimal totalAmount = BigDecimal.ZERO;
+        Map<Long, Integer> stockDeltas = new HashMap<>();
         for (OrderItem item : items) {
-            Product product = productService.getProductById(item.getProductId());
+            Product product = products.get(item.getProductId());
+            int requested = stockDeltas.merge(item.getProductId(), -item.getQuantity(), Integer::sum);
             
             // Check stock availability
-            if (!productService.isProductAvailable(item.getProductId(), item.getQuantity())) {
+            if (product.getStock() + requested < 0) {
                 throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
             }
             
             // Set unit price and calculate subtotal
             item.setUnitPrice(product.getPrice());
+            item.setCategory(product.getCategory());
             BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
             item.setSubtotal(subtotal);
             totalAmount = totalAmount.add(subtotal);
         }
         
-        // Create order
         Order order = new Order();
         order.setCustomerId(customerId);
         order.setTotalAmount(totalAmount);
-        order.setStatus("PENDING");
-        order = orderRepository.save(order);
+        order.setStatus(OrderStatus.PENDING);
         
-        // Save order items and update stock
-        for (OrderItem item : items) {
-            item.setOrderId(order.getId());
-            orderItemRepository.save(item);
-            productService.updateStock(item.getProductId(), -item.getQuantity());
-        }
+        // Write header, items and stock decrements in one transaction
+        transactionManager.execute(conn -> {
+            orderRepository.save(conn, order);
+            for (OrderItem item : items) {
+                item.setOrderId(order.getId());
+            }
+            orderItemRepository.saveAll(conn, items);
+            order.setItems(items);
+            
+            // The stock read above may be stale; the conditional update is authoritative
+            List<Long> rejected = productRepository.adjustStockBatch(conn, stockDeltas);
+            if (!rejected.isEmpty()) {
+                throw new IllegalArgumentException("Insufficient stock for product: "
+                        + products.get(rejected.get(0)).getName());
+            }
+            for (OrderEventListener listener : listeners) {
+                listener.onOrderPlaced(conn, order);
+            }
+            return order;
+        });
         
-        order.setItems(items);
         return order;
     }
 
@@ -90,84 +172,186 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public List<Order> getAllOrders() {
         List<Order> orders = orderRepository.findAll();
-        // Load items for each order
-        for (Order order : orders) {
-            List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-            order.setItems(items);
+        loadItems(orders);
+        return orders;
+    }
+
+    @Override
+    public List<Order> getOrdersAfterId(Long lastId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
         }
+        List<Order> orders = orderRepository.findAfterId(lastId, limit);
+        loadItems(orders);
         return orders;
     }
 
+    @Override
+    public List<OrderSummary> getOrderSummaries(Long lastId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        return orderRepository.findSummariesAfterId(lastId, limit);
+    }
+
+    @Override
+    public void forEachOrder(Consumer<Order> consumer) {
+        // Walk the table in keyset pages so items can be bulk-loaded per page with bounded memory
+        Long lastId = null;
+        List<Order> page;
+        do {
+            page = orderRepository.findAfterId(lastId, STREAM_PAGE_SIZE);
+            loadItems(page);
+            for (Order order : page) {
+                consumer.accept(order);
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
+
     @Override
     public List<Order> getOrdersByCustomerId(Long customerId) {
         List<Order> orders = orderRepository.findByCustomerId(customerId);
-        // Load items for each order
-        for (Order order : orders) {
-            List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-            order.setItems(items);
-        }
+        loadItems(orders);
         return orders;
     }
 
+    @Override
+    public List<OrderSummary> getOrderSummariesByCustomerId(Long customerId) {
+        return orderRepository.findSummariesByCustomerId(customerId);
+    }
+
     @Override
     public List<Order> getOrdersByStatus(String status) {
+        return getOrdersByStatus(OrderStatus.fromString(status));
+    }
+
+    @Override
+    public List<Order> getOrdersByStatus(OrderStatus status) {
         List<Order> orders = orderRepository.findByStatus(status);
-        // Load items for each order
+        loadItems(orders);
+        return orders;
+    }
+
+    @Override
+    public List<OrderSummary> getOrderSummariesByStatus(String status) {
+        return getOrderSummariesByStatus(OrderStatus.fromString(status));
+    }
+
+    @Override
+    public List<OrderSummary> getOrderSummariesByStatus(OrderStatus status) {
+        return orderRepository.findSummariesByStatus(status);
+    }
+
+    @Override
+    public long countByStatus(OrderStatus status) {
+        return statusCounters.count(status);
+    }
+
+    @Override
+    public BigDecimal sumTotalByStatus(OrderStatus status) {
+        return statusCounters.sumTotal(status);
+    }
+
+    private void loadItems(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Long> orderIds = new ArrayList<>(orders.size());
         for (Order order : orders) {
-            List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-            order.setItems(items);
+            orderIds.add(order.getId());
+        }
+        Map<Long, List<OrderItem>> itemsByOrderId = orderItemRepository.findByOrderIds(orderIds);
+        for (Order order : orders) {
+            order.setItems(itemsByOrderId.getOrDefault(order.getId(), new ArrayList<>()));
         }
-        return orders;
     }
 
     @Override
     public Order updateOrderStatus(Long orderId, String status) {
-        Order order = getOrderById(orderId);
+        return updateOrderStatus(orderId, OrderStatus.fromString(status));
+    }
+
+    @Override
+    public Order updateOrderStatus(Long orderId, OrderStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Order status cannot be empty");
+        }
+        Order order = ReadRoutingDataSource.onPrimary(() -> getOrderById(orderId));
         
         // Validate status transition
-        String currentStatus = order.getStatus();
-        if ("CANCELLED".equals(currentStatus)) {
+        OrderStatus currentStatus = order.getStatus();
+        if (currentStatus == OrderStatus.CANCELLED) {
             throw new IllegalArgumentException("Cannot update a cancelled order");
         }
-        if ("DELIVERED".equals(currentStatus)) {
+        if (currentStatus == OrderStatus.DELIVERED) {
             throw new IllegalArgumentException("Cannot update a delivered order");
         }
         
-        order.setStatus(status);
-        orderRepository.update(order);
-        return getOrderById(orderId);
+        Order updated = transactionManager.execute(conn -> {
+            Order row = orderRepository.updateStatus(conn, orderId, currentStatus, status)
+                    .orElseThrow(() -> concurrentStatusChange(orderId));
+            // Status changes never touch items, so the ones loaded above are still current
+            row.setItems(order.getItems());
+            for (OrderEventListener listener : listeners) {
+                listener.onStatusChanged(conn, row, currentStatus);
+            }
+            return row;
+        });
+        return updated;
     }
 
     @Override
     public void cancelOrder(Long orderId) {
-        Order order = getOrderById(orderId);
+        // The status read here is the expected value of the guarded update, so it must not lag behind
+        Order order = ReadRoutingDataSource.onPrimary(() -> getOrderById(orderId));
         
-        if ("DELIVERED".equals(order.getStatus())) {
+        OrderStatus currentStatus = order.getStatus();
+        if (currentStatus == OrderStatus.DELIVERED) {
             throw new IllegalArgumentException("Cannot cancel a delivered order");
         }
-        if ("CANCELLED".equals(order.getStatus())) {
+        if (currentStatus == OrderStatus.CANCELLED) {
             throw new IllegalArgumentException("Order is already cancelled");
         }
         
-        // Restore stock
+        Map<Long, Integer> stockDeltas = new HashMap<>();
         for (OrderItem item : order.getItems()) {
-            productService.updateStock(item.getProductId(), item.getQuantity());
+            stockDeltas.merge(item.getProductId(), item.getQuantity(), Integer::sum);
         }
         
-        order.setStatus("CANCELLED");
-        orderRepository.update(order);
+        // Restore stock and mark the order cancelled atomically; claiming the status first means a
+        // concurrent cancel cannot put the same stock back twice
+        transactionManager.execute(conn -> {
+            Order row = orderRepository.updateStatus(conn, orderId, currentStatus, OrderStatus.CANCELLED)
+                    .orElseThrow(() -> concurrentStatusChange(orderId));
+            row.setItems(order.getItems());
+            productRepository.adjustStockBatch(conn, stockDeltas);
+            for (OrderEventListener listener : listeners) {
+                listener.onStatusChanged(conn, row, currentStatus);
+            }
+            return null;
+        });
+    }
+
+    // The order moved on (or disappeared) between reading it and writing its new status
+    private static IllegalArgumentException concurrentStatusChange(Long orderId) {
+        return new IllegalArgumentException("Order was modified concurrently, please retry: " + orderId);
     }
 
     @Override
     public void deleteOrder(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new RuntimeException("Order not found with id: " + id);
-        }
-        
-        // Delete order items first
-        orderItemRepository.deleteByOrderId(id);
-        
-        // Delete order
-        orderRepository.delete(id);
+        // Items go first because of the foreign key; a missing order rolls their (empty) delete back
+        transactionManager.execute(conn -> {
+            List<OrderItem> items = orderItemRepository.deleteByOrderId(conn, id);
+            Order deleted = orderRepository.delete(conn, id)
+                    .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+            deleted.setItems(items);
+            for (OrderEventListener listener : listeners) {
+                listener.onOrderDeleted(conn, deleted);
+            }
+            return null;
+        });
     }
 }
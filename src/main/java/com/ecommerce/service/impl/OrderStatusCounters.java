@@ -0,0 +1,244 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.config.ReadRoutingDataSource;
+import com.ecommerce.config.TransactionManager;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.OrderStatusTotals;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.service.OrderEventListener;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Per-status order counts and totals kept up to date from order events, so dashboards never scan orders.
+// A transaction carrying an order event holds a shared lock from the event until its change is applied after
+// commit, and the first load takes the lock exclusively. Its GROUP BY therefore sees every change the counters
+// already hold and none they will still apply, so each order is counted exactly once. Orders written without
+// events (other processes, direct SQL) are picked up by reconcile(), which startReconciliation runs periodically.
+public class OrderStatusCounters implements OrderEventListener, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(OrderStatusCounters.class.getName());
+    private static final long LOAD_TIMEOUT_MILLIS = 10_000;
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final OrderRepository orderRepository;
+    private final Map<OrderStatus, Totals> totals = new EnumMap<>(OrderStatus.class);
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+    // Events between their transaction's start and the change being applied (or rolled back), and how many
+    // events ever started; reconcile only trusts a GROUP BY that neither moved across
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong started = new AtomicLong();
+    private volatile boolean loaded;
+    private ScheduledExecutorService scheduler;
+
+    public OrderStatusCounters(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+        for (OrderStatus status : OrderStatus.values()) {
+            totals.put(status, new Totals());
+        }
+    }
+
+    public long count(OrderStatus status) {
+        ensureLoaded();
+        return totals.get(status).count.get();
+    }
+
+    public BigDecimal sumTotal(OrderStatus status) {
+        ensureLoaded();
+        return BigDecimal.valueOf(totals.get(status).cents.get(), 2);
+    }
+
+    // Corrects the counters to a GROUP BY over the orders table, read from the primary without blocking commits.
+    // The GROUP BY only counts if no order event was in flight while it ran, so on a busy system it may take
+    // a few attempts; returns false if none found a quiet moment (the next run tries again).
+    public synchronized boolean reconcile() {
+        if (!loaded) {
+            load();
+            return true;
+        }
+        for (int attempt = 0; attempt < RECONCILE_ATTEMPTS; attempt++) {
+            // Read in the opposite order to record(), so an event that starts meanwhile moves one of them
+            long startedBefore = started.get();
+            if (inFlight.get() != 0) {
+                continue;
+            }
+            Map<OrderStatus, OrderStatusTotals> actual = sumByStatus();
+            Map<OrderStatus, long[]> held = new EnumMap<>(OrderStatus.class);
+            for (OrderStatus status : OrderStatus.values()) {
+                Totals counter = totals.get(status);
+                held.put(status, new long[] {counter.count.get(), counter.cents.get()});
+            }
+            if (inFlight.get() != 0 || started.get() != startedBefore) {
+                continue;
+            }
+            // Applied as deltas, so events that start from here on still add on top
+            for (OrderStatus status : OrderStatus.values()) {
+                OrderStatusTotals row = actual.get(status);
+                Totals counter = totals.get(status);
+                counter.count.addAndGet((row == null ? 0 : row.getOrderCount()) - held.get(status)[0]);
+                counter.cents.addAndGet((row == null ? 0 : toCents(row.getTotalAmount())) - held.get(status)[1]);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void startReconciliation(Duration interval) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "order-status-reconcile");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        long period = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public void onOrderPlaced(Connection conn, Order order) {
+        long cents = toCents(order.getTotalAmount());
+        OrderStatus status = order.getStatus();
+        record(() -> add(status, 1, cents));
+    }
+
+    @Override
+    public void onStatusChanged(Connection conn, Order order, OrderStatus previousStatus) {
+        long cents = toCents(order.getTotalAmount());
+        OrderStatus status = order.getStatus();
+        record(() -> {
+            add(previousStatus, -1, -cents);
+            add(status, 1, cents);
+        });
+    }
+
+    @Override
+    public void onOrderDeleted(Connection conn, Order order) {
+        long cents = toCents(order.getTotalAmount());
+        OrderStatus status = order.getStatus();
+        record(() -> add(status, -1, -cents));
+    }
+
+    // Applies the change once its transaction commits. The shared lock is taken now rather than just before
+    // the commit, because order shards commit ahead of the main database
+    private void record(Runnable change) {
+        commitLock.readLock().lock();
+        inFlight.incrementAndGet();
+        started.incrementAndGet();
+        if (!TransactionManager.isActive()) {
+            try {
+                change.run();
+            } finally {
+                release();
+            }
+            return;
+        }
+        TransactionManager.afterCommit(() -> {
+            try {
+                change.run();
+            } finally {
+                release();
+            }
+        });
+        TransactionManager.afterRollback(this::release);
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        commitLock.readLock().unlock();
+    }
+
+    private void add(OrderStatus status, long count, long cents) {
+        // Before the first load the GROUP BY will pick the change up; the lock keeps the load from running
+        // between this transaction's commit and this check
+        if (!loaded) {
+            return;
+        }
+        Totals counter = totals.get(status);
+        counter.count.addAndGet(count);
+        counter.cents.addAndGet(cents);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    // The first load replaces the counters under the exclusive lock; it runs once, so the commits it holds
+    // back only wait this one time
+    private void load() {
+        try {
+            if (!commitLock.writeLock().tryLock(LOAD_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Timed out waiting for order commits to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for order commits to finish", e);
+        }
+        try {
+            Map<OrderStatus, OrderStatusTotals> actual = sumByStatus();
+            for (OrderStatus status : OrderStatus.values()) {
+                OrderStatusTotals row = actual.get(status);
+                Totals counter = totals.get(status);
+                counter.count.set(row == null ? 0 : row.getOrderCount());
+                counter.cents.set(row == null ? 0 : toCents(row.getTotalAmount()));
+            }
+            loaded = true;
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    private Map<OrderStatus, OrderStatusTotals> sumByStatus() {
+        Map<OrderStatus, OrderStatusTotals> actual = new EnumMap<>(OrderStatus.class);
+        for (OrderStatusTotals row : ReadRoutingDataSource.onPrimary(orderRepository::sumByStatus)) {
+            actual.put(row.getStatus(), row);
+        }
+        return actual;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            if (!reconcile()) {
+                LOGGER.fine("Order status counters not reconciled: order commits kept arriving");
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error reconciling order status counters", e);
+        }
+    }
+
+    // total_amount is DECIMAL(10, 2), so whole cents fit in a long and add without locking
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    private static final class Totals {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong cents = new AtomicLong();
+    }
+}
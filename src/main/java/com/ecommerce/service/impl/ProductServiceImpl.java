@@ -1,13 +1,22 @@
 package com.ecommerce.service.impl;
 
 import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductSummary;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductSearchHit;
+import com.ecommerce.search.ProductSearchIndex;
 import com.ecommerce.service.ProductService;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private volatile boolean searchIndexLoaded;
 
     public ProductServiceImpl(ProductRepository productRepository) {
         this.productRepository = productRepository;
@@ -15,6 +24,13 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Product createProduct(Product product) {
+        validate(product);
+        Product saved = productRepository.save(product);
+        searchIndex.index(saved);
+        return saved;
+    }
+
+    static void validate(Product product) {
         if (product.getName() == null || product.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Product name cannot be empty");
         }
@@ -24,7 +40,6 @@ public class ProductServiceImpl implements ProductService {
         if (product.getStock() == null || product.getStock() < 0) {
             throw new IllegalArgumentException("Product stock cannot be negative");
         }
-        return productRepository.save(product);
     }
 
     @Override
@@ -38,6 +53,27 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findAll();
     }
 
+    @Override
+    public List<Product> getProductsAfterId(Long lastId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        return productRepository.findAfterId(lastId, limit);
+    }
+
+    @Override
+    public List<ProductSummary> getProductSummaries(Long lastId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        return productRepository.findSummariesAfterId(lastId, limit);
+    }
+
+    @Override
+    public void forEachProduct(Consumer<Product> consumer) {
+        productRepository.streamAll(consumer);
+    }
+
     @Override
     public List<Product> getProductsByCategory(String category) {
         if (category == null || category.trim().isEmpty()) {
@@ -46,6 +82,14 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findByCategory(category);
     }
 
+    @Override
+    public List<ProductSummary> getProductSummariesByCategory(String category) {
+        if (category == null || category.trim().isEmpty()) {
+            throw new IllegalArgumentException("Category cannot be empty");
+        }
+        return productRepository.findSummariesByCategory(category);
+    }
+
     @Override
     public List<Product> getProductsByPriceRange(Double minPrice, Double maxPrice) {
         if (minPrice < 0 || maxPrice < 0) {
@@ -58,37 +102,100 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public Product updateProduct(Long id, Product product) {
-        if (!productRepository.existsById(id)) {
-            throw new RuntimeException("Product not found with id: " + id);
+    public List<Product> searchProducts(String query, int limit) {
+        return searchProducts(query, null, null, null, limit);
+    }
+
+    @Override
+    public List<Product> searchProducts(String query, String category, Double minPrice, Double maxPrice, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
         }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        if ((minPrice != null && minPrice < 0) || (maxPrice != null && maxPrice < 0)) {
+            throw new IllegalArgumentException("Prices cannot be negative");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("Min price cannot be greater than max price");
+        }
+        ensureSearchIndexLoaded();
+        
+        List<ProductSearchHit> hits = searchIndex.search(query, category,
+                minPrice == null ? null : BigDecimal.valueOf(minPrice), maxPrice == null ? null : BigDecimal.valueOf(maxPrice), limit);
+        // The index only ranks; rows come from the repository in one lookup so stock is current
+        List<Long> productIds = new ArrayList<>(hits.size());
+        for (ProductSearchHit hit : hits) {
+            productIds.add(hit.getProductId());
+        }
+        Map<Long, Product> rows = productRepository.findByIds(productIds);
+        List<Product> products = new ArrayList<>(hits.size());
+        for (Long productId : productIds) {
+            Product product = rows.get(productId);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    // Reloads the search index from the table, for products written without going through this service
+    // (other processes, or imports not given this index)
+    public void rebuildSearchIndex() {
+        searchIndex.rebuild(productRepository);
+        searchIndexLoaded = true;
+    }
+
+    public ProductSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    private void ensureSearchIndexLoaded() {
+        if (!searchIndexLoaded) {
+            synchronized (this) {
+                if (!searchIndexLoaded) {
+                    rebuildSearchIndex();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Product updateProduct(Long id, Product product) {
         product.setId(id);
-        productRepository.update(product);
-        return productRepository.findById(id).orElseThrow();
+        Product updated = productRepository.update(product)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        searchIndex.index(updated);
+        return updated;
     }
 
     @Override
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
+        if (!productRepository.delete(id)) {
             throw new RuntimeException("Product not found with id: " + id);
         }
-        productRepository.delete(id);
+        searchIndex.remove(id);
     }
 
     @Override
     public boolean isProductAvailable(Long productId, Integer quantity) {
-        Product product = getProductById(productId);
-        return product.getStock() >= quantity;
+        if (productRepository.hasStock(productId, quantity)) {
+            return true;
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+        return false;
     }
 
     @Override
     public void updateStock(Long productId, Integer quantity) {
-        Product product = getProductById(productId);
-        int newStock = product.getStock() + quantity;
-        if (newStock < 0) {
-            throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+        if (productRepository.adjustStock(productId, quantity)) {
+            return;
         }
-        product.setStock(newStock);
-        productRepository.update(product);
+        // Only the failure path pays for a lookup, to tell a missing product from insufficient stock
+        Product product = getProductById(productId);
+        throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
     }
 }
@@ -0,0 +1,4 @@
+-- Record each item's product category at the time of sale, so sales rollups keep crediting (and later
+-- debiting) the category the sale was counted under even after the product is recategorized. Rows written
+-- before this column existed fall back to the product's current category.
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS category VARCHAR(100);
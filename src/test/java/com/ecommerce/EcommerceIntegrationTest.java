@@ -1,32 +1,82 @@
 package com.ecommerce;
 
+import com.ecommerce.config.BootstrapReport;
+import com.ecommerce.config.BoundedExecutors;
+import com.ecommerce.config.ConnectionPool;
+import com.ecommerce.config.DatabaseBootstrap;
 import com.ecommerce.config.DatabaseConfig;
+import com.ecommerce.config.OrderShards;
+import com.ecommerce.config.PoolConfig;
+import com.ecommerce.config.ReadRoutingDataSource;
+import com.ecommerce.config.SchemaManager;
+import com.ecommerce.config.TransactionManager;
+import com.ecommerce.exception.DuplicateKeyException;
+import com.ecommerce.exception.StockConflictException;
+import com.ecommerce.metrics.MetricsRegistry;
+import com.ecommerce.metrics.OperationSnapshot;
 import com.ecommerce.model.Customer;
+import com.ecommerce.model.CustomerOrderStats;
+import com.ecommerce.model.DailyCategorySales;
+import com.ecommerce.model.HourlyOrderStats;
+import com.ecommerce.model.ImportResult;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.OrderStatus;
 import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductSales;
 import com.ecommerce.repository.CustomerRepository;
 import com.ecommerce.repository.OrderItemRepository;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.impl.CachingProductRepository;
+import com.ecommerce.repository.impl.CustomerOrderStatsRepositoryImpl;
 import com.ecommerce.repository.impl.CustomerRepositoryImpl;
+import com.ecommerce.repository.impl.IndexedCustomerRepository;
+import com.ecommerce.repository.impl.LedgerProductRepository;
 import com.ecommerce.repository.impl.OrderItemRepositoryImpl;
 import com.ecommerce.repository.impl.OrderRepositoryImpl;
 import com.ecommerce.repository.impl.ProductRepositoryImpl;
+import com.ecommerce.repository.impl.SalesRollupRepositoryImpl;
+import com.ecommerce.repository.impl.ShardedOrderItemRepository;
+import com.ecommerce.repository.impl.ShardedOrderRepository;
+import com.ecommerce.service.AnalyticsService;
+import com.ecommerce.service.AsyncOrderService;
+import com.ecommerce.service.BulkImportService;
 import com.ecommerce.service.CustomerService;
+import com.ecommerce.service.OrderEventListener;
 import com.ecommerce.service.OrderService;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.service.impl.AnalyticsServiceImpl;
+import com.ecommerce.service.impl.AsyncOrderServiceImpl;
+import com.ecommerce.service.impl.BulkImportServiceImpl;
+import com.ecommerce.service.impl.CustomerOrderStatsListener;
 import com.ecommerce.service.impl.CustomerServiceImpl;
+import com.ecommerce.service.impl.OrderIngestionServiceImpl;
 import com.ecommerce.service.impl.OrderServiceImpl;
 import com.ecommerce.service.impl.ProductServiceImpl;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class EcommerceIntegrationTest {
     
@@ -36,8 +86,18 @@ public class EcommerceIntegrationTest {
     private OrderItemRepository orderItemRepository;
     
     private ProductService productService;
+    private ProductServiceImpl productServiceImpl;
     private CustomerService customerService;
     private OrderService orderService;
+    private OrderServiceImpl orderServiceImpl;
+    private AnalyticsServiceImpl analyticsServiceImpl;
+    private AnalyticsService analyticsService;
+    private CustomerOrderStatsListener customerOrderStatsListener;
+    private SchemaManager schemaManager;
+    
+    private CachingProductRepository cachingProductRepository;
+    private IndexedCustomerRepository indexedCustomerRepository;
+    private final MetricsRegistry metrics = new MetricsRegistry();
     
     public static void main(String[] args) {
         EcommerceIntegrationTest test = new EcommerceIntegrationTest();
@@ -48,52 +108,41 @@ public class EcommerceIntegrationTest {
     private void setup() {
         System.out.println("=== SETTING UP DATABASE ===");
         
-        productRepository = new ProductRepositoryImpl();
-        customerRepository = new CustomerRepositoryImpl();
-        orderRepository = new OrderRepositoryImpl();
-        orderItemRepository = new OrderItemRepositoryImpl();
+        cachingProductRepository = new CachingProductRepository(new ProductRepositoryImpl(), 10_000, Duration.ofMinutes(5));
+        productRepository = metrics.instrument(ProductRepository.class, cachingProductRepository);
+        indexedCustomerRepository = new IndexedCustomerRepository(new CustomerRepositoryImpl(), 100_000, 10_000);
+        customerRepository = metrics.instrument(CustomerRepository.class, indexedCustomerRepository);
+        orderRepository = metrics.instrument(OrderRepository.class, new OrderRepositoryImpl());
+        orderItemRepository = metrics.instrument(OrderItemRepository.class, new OrderItemRepositoryImpl());
         
         // Initialize services
-        productService = new ProductServiceImpl(productRepository);
-        customerService = new CustomerServiceImpl(customerRepository);
-        orderService = new OrderServiceImpl(orderRepository, orderItemRepository, productService, customerService);
+        productServiceImpl = new ProductServiceImpl(productRepository);
+        productService = metrics.instrument(ProductService.class, productServiceImpl);
+        customerService = metrics.instrument(CustomerService.class, new CustomerServiceImpl(customerRepository));
+        orderServiceImpl = new OrderServiceImpl(orderRepository, orderItemRepository, productRepository,
+                productService, customerService, new TransactionManager(DatabaseConfig.getDataSource()));
+        orderService = metrics.instrument(OrderService.class, orderServiceImpl);
+        analyticsServiceImpl = new AnalyticsServiceImpl(new SalesRollupRepositoryImpl(),
+                new TransactionManager(DatabaseConfig.getDataSource()));
+        orderServiceImpl.addListener(analyticsServiceImpl);
+        customerOrderStatsListener = new CustomerOrderStatsListener(new CustomerOrderStatsRepositoryImpl(),
+                new TransactionManager(DatabaseConfig.getDataSource()));
+        orderServiceImpl.addListener(customerOrderStatsListener);
+        analyticsService = metrics.instrument(AnalyticsService.class, analyticsServiceImpl);
         
-        // Create tables
-        executeSqlScript("scripts/create-tables.sql");
+        // Apply pending migrations; a database already at the latest version skips straight to seeding
+        schemaManager = new SchemaManager(DatabaseConfig.getDataSource());
+        BootstrapReport bootstrap = new DatabaseBootstrap(DatabaseConfig.getDataSource(), schemaManager,
+                DatabaseConfig.snapshotPath()).start();
+        System.out.println("Schema created: " + bootstrap.isSchemaCreated() + ", version " + bootstrap.getSchemaVersion());
+        System.out.println("Time to first query: " + bootstrap.getFirstQueryMillis() + " ms");
         
         // Seed data
-        executeSqlScript("scripts/seed-data.sql");
+        System.out.println("Seed statements: " + schemaManager.runScript("db/seed-data.sql"));
         
         System.out.println("Database setup completed!\n");
     }
     
-    private void executeSqlScript(String scriptPath) {
-        try (Connection conn = DatabaseConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             BufferedReader reader = new BufferedReader(new FileReader(scriptPath))) {
-            
-            StringBuilder sql = new StringBuilder();
-            String line;
-            
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("--")) {
-                    continue;
-                }
-                sql.append(line).append(" ");
-                if (line.endsWith(";")) {
-                    stmt.execute(sql.toString());
-                    sql.setLength(0);
-                }
-            }
-            
-            System.out.println("Executed script: " + scriptPath);
-        } catch (Exception e) {
-            System.err.println("Error executing script: " + scriptPath);
-            e.printStackTrace();
-        }
-    }
-    
     private void runAllTests() {
         System.out.println("\n=== STARTING INTEGRATION TESTS ===\n");
         
@@ -105,10 +154,767 @@ public class EcommerceIntegrationTest {
         testStockManagement();
         testComplexQueries();
         testErrorHandling();
+        testBulkImport();
+        testAsyncOrders();
+        testStockLedger();
+        testGroupCommitIngestion();
+        testStatusDashboard();
+        testSalesAnalytics();
+        testCustomerOrderStats();
+        testSchemaSnapshot();
+        testReadRouting();
+        testShardedOrders();
+        testProductSearch();
+        printCacheStats();
         
         System.out.println("\n=== ALL TESTS COMPLETED ===");
     }
     
+    private void testBulkImport() {
+        System.out.println("--- Test 9: Bulk Import ---");
+        
+        BulkImportService importService = new BulkImportServiceImpl(productRepository, customerRepository,
+                new TransactionManager(DatabaseConfig.getDataSource()), 2, 3);
+        
+        String products = "name,description,price,stock,category\n" +
+                "USB-C Cable,\"Braided, 2m\",19.99,200,Electronics\n" +
+                "Desk Lamp,LED lamp,-5,10,Home & Kitchen\n" +
+                "Yoga Mat,,29.90,40,Sports\n" +
+                "Water Bottle,\"Keeps drinks \"\"cold\"\"\",14.50,abc,Sports\n" +
+                "Backpack,Laptop backpack,59.00,25,Accessories\n";
+        ImportResult productResult = importService.importProducts(new StringReader(products));
+        System.out.println("Product import: " + productResult);
+        
+        String customers = "name,email,phone,address\n" +
+                "Lucas Silva,lucas.silva@email.com,+55-11-0001,Rua A 1\n" +
+                "Duplicate John,john.doe@email.com,+1-555-0000,Somewhere\n" +
+                "No Email,,+1-555-0001,Nowhere\n" +
+                "Lucas Again,lucas.silva@email.com,+55-11-0002,Rua B 2\n";
+        ImportResult customerResult = importService.importCustomers(new StringReader(customers));
+        System.out.println("Customer import: " + customerResult);
+        
+        System.out.println("✓ Bulk import test passed\n");
+    }
+    
+    private void testAsyncOrders() {
+        System.out.println("--- Test 10: Async Orders ---");
+        
+        ExecutorService executor = BoundedExecutors.create("async-orders", 4, 16, 1000);
+        try {
+            AsyncOrderService asyncOrders = new AsyncOrderServiceImpl(orderServiceImpl, customerService,
+                    productService, executor);
+            
+            List<CompletableFuture<Order>> pending = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                List<OrderItem> items = new ArrayList<>();
+                items.add(orderItem(2L, 1));
+                items.add(orderItem(3L, 1));
+                pending.add(asyncOrders.createOrder(1L, items));
+            }
+            for (CompletableFuture<Order> future : pending) {
+                Order order = future.join();
+                System.out.println("Async order " + order.getId() + " total: " + order.getTotalAmount());
+            }
+            
+            List<OrderItem> items = new ArrayList<>();
+            items.add(orderItem(2L, 1));
+            try {
+                asyncOrders.createOrder(99999L, items).join();
+                System.out.println("✗ Should have thrown exception for invalid customer");
+            } catch (CompletionException e) {
+                System.out.println("✓ Async invalid customer error: " + e.getCause().getMessage());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        // Many callers on a tiny executor: admitted orders must complete instead of failing on the full queue
+        Product burstProduct = new Product();
+        burstProduct.setName("Async Burst Item");
+        burstProduct.setPrice(new BigDecimal("1.00"));
+        burstProduct.setStock(1_000);
+        burstProduct.setCategory("Electronics");
+        Long burstProductId = productService.createProduct(burstProduct).getId();
+        ExecutorService small = BoundedExecutors.create("async-burst", 2, 4, 2000);
+        try {
+            AsyncOrderService asyncOrders = new AsyncOrderServiceImpl(orderServiceImpl, customerService,
+                    productService, small);
+            AtomicInteger failed = new AtomicInteger();
+            List<Thread> callers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Thread caller = new Thread(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        List<OrderItem> items = new ArrayList<>();
+                        items.add(orderItem(burstProductId, 1));
+                        try {
+                            asyncOrders.createOrder(1L, items).join();
+                        } catch (CompletionException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                });
+                callers.add(caller);
+                caller.start();
+            }
+            for (Thread caller : callers) {
+                caller.join();
+            }
+            System.out.println("Async burst: 80 orders, failed: " + failed.get() +
+                    ", stock left: " + productService.getProductById(burstProductId).getStock());
+            if (failed.get() != 0) {
+                System.out.println("✗ Admitted async orders failed under saturation");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            small.shutdown();
+        }
+        
+        System.out.println("✓ Async orders test passed\n");
+    }
+    
+    private void testStockLedger() {
+        System.out.println("--- Test 11: Stock Ledger ---");
+        
+        Product product = new Product();
+        product.setName("Flash Sale Item");
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStock(100);
+        product.setCategory("Electronics");
+        Long productId = productService.createProduct(product).getId();
+        
+        try (LedgerProductRepository ledger = new LedgerProductRepository(productRepository,
+                new TransactionManager(DatabaseConfig.getDataSource()), Duration.ZERO)) {
+            AtomicInteger reserved = new AtomicInteger();
+            List<Thread> buyers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Thread buyer = new Thread(() -> {
+                    for (int j = 0; j < 20; j++) {
+                        if (ledger.adjustStock(productId, -1)) {
+                            reserved.incrementAndGet();
+                        }
+                    }
+                });
+                buyers.add(buyer);
+                buyer.start();
+            }
+            for (Thread buyer : buyers) {
+                buyer.join();
+            }
+            System.out.println("Reserved " + reserved.get() + " of 160 attempts");
+            System.out.println("Stock before flush: " + productRepository.findById(productId).orElseThrow().getStock());
+            
+            // A rolled back order gives its reservation back
+            ledger.adjustStock(productId, 5);
+            try {
+                new TransactionManager(DatabaseConfig.getDataSource()).execute(conn -> {
+                    ledger.adjustStockBatch(conn, Map.of(productId, -5));
+                    throw new IllegalStateException("simulated failure");
+                });
+            } catch (IllegalStateException e) {
+                System.out.println("Stock after rollback: " + ledger.findById(productId).orElseThrow().getStock());
+            }
+            
+            System.out.println("Flushed products: " + ledger.flush());
+            System.out.println("Stock after flush: " + productRepository.findById(productId).orElseThrow().getStock());
+            
+            // Stock lowered behind the ledger's back: the promised units are reported, not dropped
+            ledger.adjustStock(productId, -3);
+            Product row = productRepository.findById(productId).orElseThrow();
+            row.setStock(1);
+            productRepository.update(row);
+            try {
+                ledger.flush();
+                System.out.println("✗ Should have reported the rejected delta");
+            } catch (StockConflictException e) {
+                System.out.println("✓ Rejected deltas: " + e.getRejectedDeltas() + ", unapplied: " + ledger.getUnappliedDeltas());
+                ledger.settleUnapplied(productId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        System.out.println("✓ Stock ledger test passed\n");
+    }
+    
+    private void testGroupCommitIngestion() {
+        System.out.println("--- Test 12: Group Commit Ingestion ---");
+        
+        Product product = new Product();
+        product.setName("Marketplace Item");
+        product.setPrice(new BigDecimal("5.00"));
+        product.setStock(10);
+        product.setCategory("Electronics");
+        Long productId = productService.createProduct(product).getId();
+        
+        try (OrderIngestionServiceImpl ingestion = new OrderIngestionServiceImpl(orderRepository, orderItemRepository,
+                productRepository, customerRepository, new TransactionManager(DatabaseConfig.getDataSource()),
+                50, Duration.ofMillis(20), 1000)) {
+            ingestion.addListener(orderServiceImpl.getStatusCounters());
+            ingestion.addListener(analyticsServiceImpl);
+            ingestion.addListener(customerOrderStatsListener);
+            List<CompletableFuture<Order>> pending = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                List<OrderItem> items = new ArrayList<>();
+                items.add(orderItem(productId, 1));
+                pending.add(ingestion.submit(1L, items));
+            }
+            List<OrderItem> items = new ArrayList<>();
+            items.add(orderItem(productId, 1));
+            pending.add(ingestion.submit(99999L, items));
+            
+            int placed = 0;
+            List<String> failures = new ArrayList<>();
+            for (CompletableFuture<Order> future : pending) {
+                try {
+                    future.join();
+                    placed++;
+                } catch (CompletionException e) {
+                    failures.add(e.getCause().getMessage());
+                }
+            }
+            System.out.println("Placed " + placed + " of " + pending.size() + " orders");
+            System.out.println("Failures: " + failures);
+            System.out.println("Remaining stock: " + productService.getProductById(productId).getStock());
+        }
+        
+        System.out.println("✓ Group commit ingestion test passed\n");
+    }
+    
+    private void testStatusDashboard() {
+        System.out.println("--- Test 13: Status Dashboard ---");
+        
+        long pendingBefore = orderService.countByStatus(OrderStatus.PENDING);
+        long cancelledBefore = orderService.countByStatus(OrderStatus.CANCELLED);
+        List<OrderItem> items = new ArrayList<>();
+        items.add(orderItem(1L, 1));
+        Order order = orderService.createOrder(1L, items);
+        orderService.cancelOrder(order.getId());
+        System.out.println("PENDING change after create and cancel: "
+                + (orderService.countByStatus(OrderStatus.PENDING) - pendingBefore));
+        System.out.println("CANCELLED change after create and cancel: "
+                + (orderService.countByStatus(OrderStatus.CANCELLED) - cancelledBefore));
+        
+        for (OrderStatus status : OrderStatus.values()) {
+            System.out.println(status + ": " + orderService.countByStatus(status) + " orders, "
+                    + orderService.sumTotalByStatus(status));
+        }
+        
+        // The maintained counters must agree with a full GROUP BY
+        Map<OrderStatus, Long> counted = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            counted.put(status, orderService.countByStatus(status));
+        }
+        orderServiceImpl.getStatusCounters().reconcile();
+        boolean consistent = true;
+        for (OrderStatus status : OrderStatus.values()) {
+            consistent &= counted.get(status) == orderService.countByStatus(status);
+        }
+        System.out.println("Counters match GROUP BY: " + consistent);
+        
+        // Fresh counters loaded and reconciled while orders commit must still count each order once
+        Product busyProduct = new Product();
+        busyProduct.setName("Dashboard Busy Item");
+        busyProduct.setPrice(new BigDecimal("2.50"));
+        busyProduct.setStock(1_000);
+        busyProduct.setCategory("Electronics");
+        Long busyProductId = productService.createProduct(busyProduct).getId();
+        OrderServiceImpl busyOrders = new OrderServiceImpl(orderRepository, orderItemRepository, productRepository,
+                productService, customerService, new TransactionManager(DatabaseConfig.getDataSource()));
+        busyOrders.addListener(analyticsServiceImpl);
+        busyOrders.addListener(customerOrderStatsListener);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 25; i++) {
+                    List<OrderItem> busyItems = new ArrayList<>();
+                    busyItems.add(orderItem(busyProductId, 1));
+                    Order placed = busyOrders.createOrder(1L, busyItems);
+                    if (i % 2 == 0) {
+                        busyOrders.cancelOrder(placed.getId());
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        busyOrders.countByStatus(OrderStatus.PENDING);
+        busyOrders.getStatusCounters().startReconciliation(Duration.ofMillis(5));
+        try {
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        busyOrders.getStatusCounters().close();
+        Map<OrderStatus, Long> busyCounted = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            busyCounted.put(status, busyOrders.countByStatus(status));
+        }
+        busyOrders.getStatusCounters().reconcile();
+        boolean busyConsistent = true;
+        for (OrderStatus status : OrderStatus.values()) {
+            busyConsistent &= busyCounted.get(status) == busyOrders.countByStatus(status);
+        }
+        System.out.println("Counters loaded under concurrent commits match GROUP BY: " + busyConsistent);
+        if (!busyConsistent) {
+            System.out.println("✗ Counters drifted: " + busyCounted);
+        }
+        
+        // An order changed without events (e.g. by another process) is picked up by the next reconcile
+        long shippedBefore = busyOrders.countByStatus(OrderStatus.SHIPPED);
+        List<OrderItem> outOfBandItems = new ArrayList<>();
+        outOfBandItems.add(orderItem(busyProductId, 1));
+        Long outOfBandId = busyOrders.createOrder(1L, outOfBandItems).getId();
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE orders SET status = 'SHIPPED' WHERE id = ?")) {
+            stmt.setLong(1, outOfBandId);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        boolean reconciled = busyOrders.getStatusCounters().reconcile()
+                && busyOrders.countByStatus(OrderStatus.SHIPPED) == shippedBefore + 1;
+        System.out.println("Reconcile picks up an out-of-band status change: " + reconciled);
+        if (!reconciled) {
+            System.out.println("✗ Out-of-band status change not reconciled");
+        }
+        
+        try {
+            orderService.getOrdersByStatus("LOST");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Caught expected error: " + e.getMessage());
+        }
+        
+        System.out.println("✓ Status dashboard test passed\n");
+    }
+    
+    private void testSalesAnalytics() {
+        System.out.println("--- Test 14: Sales Analytics ---");
+        
+        LocalDate today = LocalDate.now();
+        List<DailyCategorySales> incremental = analyticsService.getDailyCategoryRevenue(today, today);
+        for (DailyCategorySales sales : incremental) {
+            System.out.println(sales.getCategory() + ": " + sales.getRevenue() + " (" + sales.getUnits() + " units)");
+        }
+        List<ProductSales> topProducts = analyticsService.getTopProducts(today, today, 3);
+        System.out.println("Top products: " + topProducts.size());
+        long hourlyOrders = 0;
+        for (HourlyOrderStats stats : analyticsService.getHourlyOrderCounts(today.atStartOfDay(),
+                today.plusDays(1).atStartOfDay())) {
+            hourlyOrders += stats.getOrderCount();
+        }
+        System.out.println("Orders today: " + hourlyOrders);
+        System.out.println("Average order value: " + analyticsService.getAverageOrderValue(today, today));
+        
+        // A set-based backfill must land on the same numbers the incremental updates produced
+        analyticsService.rebuildRollups();
+        List<DailyCategorySales> rebuilt = analyticsService.getDailyCategoryRevenue(today, today);
+        System.out.println("Rollups match backfill: " + incremental.toString().equals(rebuilt.toString())
+                + ", " + topProducts.toString().equals(analyticsService.getTopProducts(today, today, 3).toString()));
+        
+        // Cancelling after a recategorization must debit the category the sale was credited to
+        Product lamp = new Product();
+        lamp.setName("Rollup Desk Lamp");
+        lamp.setPrice(new BigDecimal("40.00"));
+        lamp.setStock(10);
+        lamp.setCategory("Lighting");
+        lamp = productService.createProduct(lamp);
+        List<OrderItem> items = new ArrayList<>();
+        items.add(orderItem(lamp.getId(), 2));
+        Order order = orderService.createOrder(1L, items);
+        lamp.setCategory("Home & Kitchen");
+        productService.updateProduct(lamp.getId(), lamp);
+        orderService.cancelOrder(order.getId());
+        List<DailyCategorySales> afterCancel = analyticsService.getDailyCategoryRevenue(today, today);
+        analyticsService.rebuildRollups();
+        System.out.println("Recategorized cancellation matches backfill: "
+                + afterCancel.toString().equals(analyticsService.getDailyCategoryRevenue(today, today).toString()));
+        
+        System.out.println("✓ Sales analytics test passed\n");
+    }
+    
+    private void testCustomerOrderStats() {
+        System.out.println("--- Test 15: Customer Order Stats ---");
+        
+        CustomerOrderStats before = customerService.getCustomerOrderStats(2L);
+        System.out.println("Before: " + before.getOrderCount() + " orders, " + before.getLifetimeValue());
+        
+        List<OrderItem> items = new ArrayList<>();
+        items.add(orderItem(2L, 1));
+        Order order = orderService.createOrder(2L, items);
+        CustomerOrderStats placed = customerService.getCustomerOrderStats(2L);
+        System.out.println("After order: " + placed.getOrderCount() + " orders, " + placed.getLifetimeValue()
+                + ", last order recorded: " + (placed.getLastOrderAt() != null));
+        
+        orderService.cancelOrder(order.getId());
+        CustomerOrderStats cancelled = customerService.getCustomerOrderStats(2L);
+        System.out.println("After cancel: " + cancelled.getOrderCount() + " orders, " + cancelled.getLifetimeValue());
+        
+        // A new customer's first orders placed at once all race to create the stats row. Each buys its own
+        // product and skips the rollup listener, so no other row lock serializes them, and each holds its
+        // transaction open after the stats write so they overlap
+        Customer newcomer = new Customer();
+        newcomer.setName("Stats Newcomer");
+        newcomer.setEmail("stats.newcomer@email.com");
+        Long newcomerId = customerService.createCustomer(newcomer).getId();
+        OrderServiceImpl firstOrders = new OrderServiceImpl(orderRepository, orderItemRepository, productRepository,
+                productService, customerService, new TransactionManager(DatabaseConfig.getDataSource()));
+        firstOrders.addListener(customerOrderStatsListener);
+        firstOrders.addListener(new OrderEventListener() {
+            @Override
+            public void onOrderPlaced(Connection conn, Order order) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onStatusChanged(Connection conn, Order order, OrderStatus previousStatus) {
+            }
+
+            @Override
+            public void onOrderDeleted(Connection conn, Order order) {
+            }
+        });
+        AtomicInteger failedFirstOrders = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> buyers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Product firstProduct = new Product();
+            firstProduct.setName("First Order Item " + i);
+            firstProduct.setPrice(new BigDecimal("3.00"));
+            firstProduct.setStock(5);
+            firstProduct.setCategory("Electronics");
+            Long firstProductId = productService.createProduct(firstProduct).getId();
+            Thread buyer = new Thread(() -> {
+                List<OrderItem> firstItems = new ArrayList<>();
+                firstItems.add(orderItem(firstProductId, 1));
+                try {
+                    start.await();
+                    firstOrders.createOrder(newcomerId, firstItems);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    failedFirstOrders.incrementAndGet();
+                }
+            });
+            buyers.add(buyer);
+            buyer.start();
+        }
+        start.countDown();
+        try {
+            for (Thread buyer : buyers) {
+                buyer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        System.out.println("Concurrent first orders: 8, failed: " + failedFirstOrders.get() + ", counted: "
+                + customerService.getCustomerOrderStats(newcomerId).getOrderCount());
+        if (failedFirstOrders.get() != 0) {
+            System.out.println("✗ Concurrent first orders failed on the stats row");
+        }
+        
+        // Every customer's maintained row must survive a full recompute unchanged
+        List<String> maintained = new ArrayList<>();
+        for (Customer customer : customerService.getAllCustomers()) {
+            CustomerOrderStats stats = customerService.getCustomerOrderStats(customer.getId());
+            maintained.add(stats.getOrderCount() + "/" + stats.getLifetimeValue() + "/" + stats.getLastOrderAt());
+        }
+        System.out.println("Recomputed customers: " + customerOrderStatsListener.recomputeAll());
+        List<String> recomputed = new ArrayList<>();
+        for (Customer customer : customerService.getAllCustomers()) {
+            CustomerOrderStats stats = customerService.getCustomerOrderStats(customer.getId());
+            recomputed.add(stats.getOrderCount() + "/" + stats.getLifetimeValue() + "/" + stats.getLastOrderAt());
+        }
+        System.out.println("Stats match recompute: " + maintained.equals(recomputed));
+        
+        System.out.println("✓ Customer order stats test passed\n");
+    }
+    
+    private void testSchemaSnapshot() {
+        System.out.println("--- Test 16: Schema Versions and Snapshots ---");
+        
+        System.out.println("Current version: " + schemaManager.currentVersion() + " of " + schemaManager.latestVersion());
+        System.out.println("Migrations applied on rerun: " + schemaManager.migrate().size());
+        
+        // Dump this database and restore it into a fresh one, which then needs no migrations
+        PoolConfig config = new PoolConfig("jdbc:h2:mem:snapshot_restore;DB_CLOSE_DELAY=-1", "sa", "");
+        try (ConnectionPool restoredPool = new ConnectionPool(config)) {
+            Path snapshot = Files.createTempFile("ecommerce-snapshot", ".zip");
+            try {
+                schemaManager.writeSnapshot(snapshot);
+                SchemaManager restored = new SchemaManager(restoredPool);
+                System.out.println("Empty database version: " + restored.currentVersion());
+                
+                long started = System.nanoTime();
+                BootstrapReport report = new DatabaseBootstrap(restoredPool, restored, snapshot).start();
+                System.out.println("Restored from snapshot: " + report.isRestoredFromSnapshot()
+                        + ", migrations run: " + report.isSchemaCreated() + ", version " + report.getSchemaVersion());
+                System.out.println("Products after restore: " + countRows(restoredPool, "products") + " (source "
+                        + countRows(DatabaseConfig.getDataSource(), "products") + ")");
+                System.out.println("Restore took " + (System.nanoTime() - started) / 1_000_000 + " ms");
+                
+                try {
+                    restored.restoreSnapshot(snapshot);
+                    System.out.println("ERROR: Restored over an existing schema");
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Correctly refused second restore: " + e.getMessage());
+                }
+            } finally {
+                Files.deleteIfExists(snapshot);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        
+        System.out.println("✓ Schema snapshot test passed\n");
+    }
+    
+    private void testReadRouting() {
+        System.out.println("--- Test 17: Read/Write Routing ---");
+        
+        ReadRoutingDataSource reads = (ReadRoutingDataSource) DatabaseConfig.getReadDataSource();
+        ConnectionPool readPool = (ConnectionPool) reads.getReplica();
+        ConnectionPool primaryPool = (ConnectionPool) reads.getPrimary();
+        System.out.println("Read pool is read-only: " + readPool.getConfig().isReadOnly());
+        
+        int readActive = readPool.getActiveConnections();
+        try (Connection conn = reads.getConnection()) {
+            System.out.println("Read borrowed from read pool: " + (readPool.getActiveConnections() == readActive + 1
+                    && conn.isValid(1)));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        int primaryActive = primaryPool.getActiveConnections();
+        boolean pinned = ReadRoutingDataSource.onPrimary(() -> {
+            try (Connection conn = reads.getConnection()) {
+                return primaryPool.getActiveConnections() == primaryActive + 1 && conn.isValid(1);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        System.out.println("Pinned read borrowed from primary: " + pinned);
+        
+        // Tie up every primary connection, as a burst of checkouts would; reads must still get through
+        List<Connection> held = new ArrayList<>();
+        try {
+            while (held.size() < primaryPool.getConfig().getMaximumPoolSize()) {
+                held.add(primaryPool.getConnection());
+            }
+            long started = System.nanoTime();
+            int products = new ProductRepositoryImpl().findAll().size();
+            System.out.println("Read " + products + " products with the primary pool exhausted in "
+                    + ((System.nanoTime() - started) / 1_000_000 < 1_000 ? "under a second" : "over a second"));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            for (Connection conn : held) {
+                DatabaseConfig.closeConnection(conn);
+            }
+        }
+        
+        System.out.println("✓ Read routing test passed\n");
+    }
+    
+    private void testShardedOrders() {
+        System.out.println("--- Test 18: Sharded Orders ---");
+        
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            urls.add("jdbc:h2:mem:order_shard_" + i + ";DB_CLOSE_DELAY=-1");
+        }
+        try (OrderShards shards = OrderShards.fromUrls(urls)) {
+            shards.initializeSchema();
+            // A second run finds every shard current, identity settings included
+            shards.initializeSchema();
+            List<Integer> shardVersions = new ArrayList<>();
+            for (int i = 0; i < urls.size(); i++) {
+                shardVersions.add(new SchemaManager(shards.getShard(i)).currentVersion());
+            }
+            System.out.println("Shard schema versions: " + shardVersions);
+            OrderServiceImpl sharded = new OrderServiceImpl(new ShardedOrderRepository(shards),
+                    new ShardedOrderItemRepository(shards), productRepository, productService, customerService,
+                    new TransactionManager(DatabaseConfig.getDataSource()));
+            // Stats and rollups live in the main database and must count orders placed on the shards
+            sharded.addListener(analyticsServiceImpl);
+            sharded.addListener(customerOrderStatsListener);
+            long customer3Orders = customerService.getCustomerOrderStats(3L).getOrderCount();
+            
+            Product product = new Product();
+            product.setName("Sharded Widget");
+            product.setPrice(new BigDecimal("5.00"));
+            product.setStock(50);
+            product.setCategory("Electronics");
+            Long productId = productService.createProduct(product).getId();
+            
+            List<Order> placed = new ArrayList<>();
+            for (long customerId = 1; customerId <= 5; customerId++) {
+                List<OrderItem> items = new ArrayList<>();
+                items.add(orderItem(productId, 2));
+                placed.add(sharded.createOrder(customerId, items));
+            }
+            boolean routed = true;
+            for (Order order : placed) {
+                routed &= OrderShards.shardOf(order.getId()) == shards.shardForCustomer(order.getCustomerId());
+            }
+            System.out.println("Orders placed on their customer's shard: " + routed);
+            
+            Order first = placed.get(0);
+            Order loaded = sharded.getOrderById(first.getId());
+            System.out.println("Loaded by id: " + loaded.getCustomerId() + ", " + loaded.getItems().size() + " item(s)");
+            System.out.println("Customer 1 orders: " + sharded.getOrdersByCustomerId(1L).size());
+            System.out.println("All orders across shards: " + sharded.getAllOrders().size());
+            System.out.println("Pending across shards: " + sharded.getOrdersByStatus(OrderStatus.PENDING).size()
+                    + ", counter " + sharded.countByStatus(OrderStatus.PENDING));
+            
+            sharded.cancelOrder(first.getId());
+            System.out.println("Cancelled on shard: " + sharded.getOrderById(first.getId()).getStatus()
+                    + ", stock " + productService.getProductById(productId).getStock());
+            sharded.deleteOrder(placed.get(1).getId());
+            
+            // Five orders of two units, one cancelled and one deleted
+            long shardedUnits = 0;
+            for (ProductSales sales : analyticsService.getTopProducts(LocalDate.now(), LocalDate.now(), 1000)) {
+                if (sales.getProductId().equals(productId)) {
+                    shardedUnits = sales.getUnits();
+                }
+            }
+            boolean counted = shardedUnits == 6
+                    && customerService.getCustomerOrderStats(3L).getOrderCount() == customer3Orders + 1;
+            System.out.println("Sharded orders counted in rollups and customer stats: " + counted);
+            if (!counted) {
+                System.out.println("✗ Sharded orders missing from rollups or stats: " + shardedUnits + " units");
+            }
+            
+            // A failure after the shard rows were written must roll the shard back with the main transaction
+            sharded.addListener(new OrderEventListener() {
+                @Override
+                public void onOrderPlaced(Connection conn, Order order) {
+                    throw new IllegalArgumentException("Rejected by listener");
+                }
+                
+                @Override
+                public void onStatusChanged(Connection conn, Order order, OrderStatus previousStatus) {
+                }
+                
+                @Override
+                public void onOrderDeleted(Connection conn, Order order) {
+                }
+            });
+            try {
+                List<OrderItem> items = new ArrayList<>();
+                items.add(orderItem(productId, 1));
+                sharded.createOrder(2L, items);
+                System.out.println("ERROR: Rejected order was placed");
+            } catch (IllegalArgumentException e) {
+                System.out.println("Correctly rolled back: " + e.getMessage() + ", stock "
+                        + productService.getProductById(productId).getStock());
+            }
+            System.out.println("Orders after rollback: " + sharded.getAllOrders().size());
+        }
+        
+        System.out.println("✓ Sharded orders test passed\n");
+    }
+    
+    private void testProductSearch() {
+        System.out.println("--- Test 19: Product Search ---");
+        
+        System.out.println("'running shoes': " + names(productService.searchProducts("running shoes", 10)));
+        System.out.println("'water' (prefix): " + names(productService.searchProducts("water", 10)));
+        System.out.println("'electronics' under 1000: "
+                + names(productService.searchProducts("electronics", null, null, 1000.0, 10)));
+        System.out.println("'waterproof' in Clothing: "
+                + names(productService.searchProducts("waterproof", "clothing", null, null, 10)));
+        
+        // Imported products are searchable as soon as their chunk commits, without a rebuild
+        BulkImportServiceImpl importer = new BulkImportServiceImpl(productRepository, customerRepository,
+                new TransactionManager(DatabaseConfig.getDataSource()));
+        importer.setSearchIndex(productServiceImpl.getSearchIndex());
+        importer.importProducts(new StringReader("name,description,price,stock,category\n" +
+                "Trail Compass,Liquid-filled baseplate compass,24.00,15,Outdoors\n"));
+        System.out.println("'compass' after import: " + names(productService.searchProducts("compass", 10)));
+        
+        // Name matches outrank description-only matches
+        Product headphones = new Product();
+        headphones.setName("Studio Headphones");
+        headphones.setDescription("Wired reference monitors");
+        headphones.setPrice(new BigDecimal("149.99"));
+        headphones.setStock(5);
+        headphones.setCategory("Audio");
+        Long headphonesId = productService.createProduct(headphones).getId();
+        System.out.println("'headphones' after create: " + names(productService.searchProducts("headphones", 10)));
+        
+        headphones.setName("Studio Monitors");
+        productService.updateProduct(headphonesId, headphones);
+        System.out.println("'studio headph' after rename: " + names(productService.searchProducts("studio headph", 10)));
+        System.out.println("'studio mon' after rename: " + names(productService.searchProducts("studio mon", 10)));
+        
+        productService.deleteProduct(headphonesId);
+        System.out.println("'studio' after delete: " + names(productService.searchProducts("studio", 10)));
+        
+        try {
+            productService.searchProducts(" ", 10);
+            System.out.println("ERROR: Empty search was accepted");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Correctly rejected: " + e.getMessage());
+        }
+        
+        System.out.println("✓ Product search test passed\n");
+    }
+    
+    private static List<String> names(List<Product> products) {
+        List<String> names = new ArrayList<>();
+        for (Product product : products) {
+            names.add(product.getName());
+        }
+        return names;
+    }
+    
+    private static long countRows(DataSource dataSource, String table) {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    private static OrderItem orderItem(Long productId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+    
+    private void printCacheStats() {
+        try {
+            ConnectionPool pool = DatabaseConfig.getDataSource().unwrap(ConnectionPool.class);
+            System.out.println("Statement cache: " + pool.getStatementCacheStats());
+        } catch (SQLException e) {
+            System.err.println("Could not read statement cache stats: " + e.getMessage());
+        }
+        System.out.println("Product cache: " + cachingProductRepository.getStats());
+        System.out.println("Customer email cache: " + indexedCustomerRepository.getStats());
+        for (OperationSnapshot snapshot : metrics.snapshot()) {
+            if (snapshot.getName().startsWith("CustomerRepository.")) {
+                System.out.println(snapshot);
+            }
+        }
+        for (OperationSnapshot snapshot : metrics.snapshot()) {
+            if (snapshot.getName().startsWith("OrderService.")) {
+                System.out.println(snapshot);
+            }
+        }
+    }
+    
     private void testProductOperations() {
         System.out.println("--- Test 1: Product Operations ---");
         
@@ -156,9 +962,11 @@ public class EcommerceIntegrationTest {
         Customer savedCustomer = customerService.createCustomer(newCustomer);
         System.out.println("Created customer: " + savedCustomer);
         
-        // Find by email
+        // Find by email, answered through the id cached at sign-up
+        long hitsBefore = indexedCustomerRepository.getStats().getHits();
         Customer foundByEmail = customerService.getCustomerByEmail("maria.garcia@email.com");
         System.out.println("Found customer by email: " + foundByEmail);
+        System.out.println("Email cache hits on lookup: " + (indexedCustomerRepository.getStats().getHits() - hitsBefore));
         
         // Get all customers
         List<Customer> allCustomers = customerService.getAllCustomers();
@@ -169,6 +977,14 @@ public class EcommerceIntegrationTest {
         customerService.updateCustomer(foundByEmail.getId(), foundByEmail);
         System.out.println("Updated customer phone");
         
+        // An email change evicts the old and new email, so neither answers from a stale cache entry
+        foundByEmail.setEmail("maria.g@email.com");
+        customerService.updateCustomer(foundByEmail.getId(), foundByEmail);
+        System.out.println("Old email still registered: " + customerRepository.existsByEmail("maria.garcia@email.com") +
+                ", new email found: " + customerService.getCustomerByEmail("maria.g@email.com").getId());
+        foundByEmail.setEmail("maria.garcia@email.com");
+        customerService.updateCustomer(foundByEmail.getId(), foundByEmail);
+        
         System.out.println("✓ Customer operations test passed\n");
     }
     
@@ -308,6 +1124,29 @@ public class EcommerceIntegrationTest {
         List<Product> footwear = productService.getProductsByCategory("Footwear");
         System.out.println("Footwear products: " + footwear.size());
         
+        // Page through products with keyset pagination and compare with a streamed count
+        int paged = 0;
+        List<Product> page = productService.getProductsAfterId(null, 3);
+        while (!page.isEmpty()) {
+            paged += page.size();
+            page = productService.getProductsAfterId(page.get(page.size() - 1).getId(), 3);
+        }
+        AtomicInteger streamed = new AtomicInteger();
+        productService.forEachProduct(p -> streamed.incrementAndGet());
+        System.out.println("Products paged: " + paged + ", streamed: " + streamed.get());
+        
+        AtomicInteger streamedOrders = new AtomicInteger();
+        orderService.forEachOrder(o -> streamedOrders.incrementAndGet());
+        System.out.println("Orders streamed: " + streamedOrders.get());
+        
+        // Listing views read projections instead of full entities
+        System.out.println("Product summaries: " + productService.getProductSummaries(null, 3));
+        System.out.println("Footwear summaries: " + productService.getProductSummariesByCategory("Footwear").size());
+        System.out.println("Customer summaries: " + customerService.getCustomerSummaries(null, 2));
+        System.out.println("Order summaries for " + customer.getName() + ": "
+                + orderService.getOrderSummariesByCustomerId(customer.getId()).size()
+                + ", delivered: " + orderService.getOrderSummariesByStatus("DELIVERED").size());
+        
         System.out.println("✓ Complex queries test passed\n");
     }
     
@@ -337,6 +1176,17 @@ public class EcommerceIntegrationTest {
             System.out.println("✓ Correctly caught duplicate email: " + e.getMessage());
         }
         
+        // Writes that bypass the pre-check still hit the unique constraint
+        try {
+            Customer duplicate = new Customer();
+            duplicate.setName("Duplicate User");
+            duplicate.setEmail("john.doe@email.com");
+            customerRepository.save(duplicate);
+            System.out.println("✗ Should have thrown exception for duplicate email");
+        } catch (DuplicateKeyException e) {
+            System.out.println("✓ Unique constraint reported: " + e.getMessage());
+        }
+        
         // Test 3: Try to create order with insufficient stock
         try {
             Customer customer = customerService.getCustomerByEmail("bob.johnson@email.com");
@@ -370,6 +1220,40 @@ public class EcommerceIntegrationTest {
             System.out.println("✓ Correctly caught delivered order cancellation: " + e.getMessage());
         }
         
+        // Test 6: Update and delete report missing rows from the write itself
+        try {
+            Product ghost = new Product();
+            ghost.setName("Ghost");
+            ghost.setPrice(new BigDecimal("1.00"));
+            ghost.setStock(0);
+            productService.updateProduct(99999L, ghost);
+            System.out.println("✗ Should have thrown exception for updating non-existent product");
+        } catch (RuntimeException e) {
+            System.out.println("✓ Correctly caught update of non-existent product: " + e.getMessage());
+        }
+        try {
+            orderService.deleteOrder(99999L);
+            System.out.println("✗ Should have thrown exception for deleting non-existent order");
+        } catch (RuntimeException e) {
+            System.out.println("✓ Correctly caught delete of non-existent order: " + e.getMessage());
+        }
+        
+        // Test 7: A failing after-commit action neither hides the commit nor skips the actions after it
+        AtomicInteger ranAfterFailure = new AtomicInteger();
+        try {
+            new TransactionManager(DatabaseConfig.getDataSource()).execute(conn -> {
+                TransactionManager.afterCommit(() -> {
+                    throw new IllegalStateException("after-commit failure");
+                });
+                TransactionManager.afterCommit(ranAfterFailure::incrementAndGet);
+                return null;
+            });
+            System.out.println("✓ Committed transaction reported as committed; later actions ran: "
+                    + (ranAfterFailure.get() == 1));
+        } catch (RuntimeException e) {
+            System.out.println("✗ After-commit failure reached the caller: " + e.getMessage());
+        }
+        
         System.out.println("✓ Error handling test passed\n");
     }
 }
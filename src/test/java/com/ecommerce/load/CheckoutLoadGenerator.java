@@ -0,0 +1,375 @@
+package com.ecommerce.load;
+
+import com.ecommerce.config.DatabaseConfig;
+import com.ecommerce.config.SchemaManager;
+import com.ecommerce.config.TransactionManager;
+import com.ecommerce.metrics.LatencyHistogram;
+import com.ecommerce.model.Customer;
+import com.ecommerce.model.DailyCategorySales;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.OrderStatus;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.CustomerRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.impl.CachingProductRepository;
+import com.ecommerce.repository.impl.CustomerOrderStatsRepositoryImpl;
+import com.ecommerce.repository.impl.CustomerRepositoryImpl;
+import com.ecommerce.repository.impl.IndexedCustomerRepository;
+import com.ecommerce.repository.impl.OrderItemRepositoryImpl;
+import com.ecommerce.repository.impl.OrderRepositoryImpl;
+import com.ecommerce.repository.impl.ProductRepositoryImpl;
+import com.ecommerce.repository.impl.SalesRollupRepositoryImpl;
+import com.ecommerce.service.CustomerService;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.service.impl.AnalyticsServiceImpl;
+import com.ecommerce.service.impl.CustomerOrderStatsListener;
+import com.ecommerce.service.impl.CustomerServiceImpl;
+import com.ecommerce.service.impl.OrderServiceImpl;
+import com.ecommerce.service.impl.ProductServiceImpl;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Drives a weighted mix of checkout operations from many threads against a freshly seeded database, then
+// reports throughput, latency percentiles and error rates, and checks that no stock was oversold or lost.
+// Settings are system properties, e.g. -Dload.threads=16 -Dload.durationSeconds=30 -Dload.mix=create=60,get=40
+// Exits with status 1 when an invariant is broken or an operation failed unexpectedly.
+public class CheckoutLoadGenerator {
+    private static final String[] CATEGORIES = {"Electronics", "Footwear", "Audio", "Clothing", "Home & Kitchen"};
+    private static final OrderStatus[] FORWARD_STATUSES = {OrderStatus.PROCESSING, OrderStatus.SHIPPED, OrderStatus.DELIVERED};
+    private static final int RECENT_ORDERS = 4096;
+
+    enum Operation { CREATE, GET, CATEGORY, STATUS, CANCEL }
+
+    private final int productCount = Integer.getInteger("load.products", 200);
+    private final int customerCount = Integer.getInteger("load.customers", 100);
+    private final int threadCount = Integer.getInteger("load.threads", 8);
+    private final Duration duration = Duration.ofSeconds(Long.getLong("load.durationSeconds", 10L));
+    // Kept low by default so stock runs out during the run and the oversell checks have something to guard
+    private final int initialStock = Integer.getInteger("load.initialStock", 100);
+    private final int[] weights = parseMix(System.getProperty("load.mix", "create=40,get=25,category=20,status=10,cancel=5"));
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> rejections = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> failures = new EnumMap<>(Operation.class);
+    private final AtomicLongArray recentOrders = new AtomicLongArray(RECENT_ORDERS);
+    private final AtomicLong ordersPlaced = new AtomicLong();
+    private final List<String> sampleFailures = new ArrayList<>();
+
+    private ProductService productService;
+    private CustomerService customerService;
+    private OrderServiceImpl orderService;
+    private AnalyticsServiceImpl analyticsService;
+
+    public static void main(String[] args) throws InterruptedException {
+        CheckoutLoadGenerator generator = new CheckoutLoadGenerator();
+        generator.setup();
+        long elapsedNanos = generator.run();
+        boolean healthy = generator.report(elapsedNanos);
+        System.exit(healthy ? 0 : 1);
+    }
+
+    private void setup() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            rejections.put(operation, new LongAdder());
+            failures.put(operation, new LongAdder());
+        }
+        
+        ProductRepository productRepository = new CachingProductRepository(new ProductRepositoryImpl(), 10_000,
+                Duration.ofMinutes(5));
+        CustomerRepository customerRepository = new IndexedCustomerRepository(new CustomerRepositoryImpl(),
+                customerCount * 2, customerCount);
+        TransactionManager transactionManager = new TransactionManager(DatabaseConfig.getDataSource());
+        productService = new ProductServiceImpl(productRepository);
+        customerService = new CustomerServiceImpl(customerRepository);
+        orderService = new OrderServiceImpl(new OrderRepositoryImpl(), new OrderItemRepositoryImpl(), productRepository,
+                productService, customerService, transactionManager);
+        orderService.addListener(new CustomerOrderStatsListener(new CustomerOrderStatsRepositoryImpl(),
+                transactionManager));
+        analyticsService = new AnalyticsServiceImpl(new SalesRollupRepositoryImpl(), transactionManager);
+        orderService.addListener(analyticsService);
+        
+        createSchema();
+        transactionManager.execute(conn -> {
+            List<Product> products = new ArrayList<>(productCount);
+            for (int i = 1; i <= productCount; i++) {
+                products.add(new Product(null, "Load Product " + i, "Load test product " + i,
+                        BigDecimal.valueOf(5 + i % 200).add(new BigDecimal("0.99")), initialStock,
+                        CATEGORIES[i % CATEGORIES.length]));
+            }
+            productRepository.saveAll(conn, products);
+            
+            List<Customer> customers = new ArrayList<>(customerCount);
+            for (int i = 1; i <= customerCount; i++) {
+                customers.add(new Customer(null, "Load Customer " + i, "load" + i + "@load.example",
+                        "+1-555-" + i, i + " Load Street"));
+            }
+            customerRepository.saveAll(conn, customers);
+            return null;
+        });
+        // Load the status counters now so the run exercises their incremental path
+        orderService.countByStatus(OrderStatus.PENDING);
+        System.out.println("Seeded " + productCount + " products with stock " + initialStock + " and "
+                + customerCount + " customers");
+    }
+
+    private long run() throws InterruptedException {
+        System.out.println("Running " + threadCount + " threads for " + duration.getSeconds() + "s");
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threadCount);
+        long deadline = System.nanoTime() + duration.toNanos();
+        for (int i = 0; i < threadCount; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        execute(pickOperation());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + i);
+            worker.start();
+        }
+        // Reconcile the status counters throughout the run, as a deployment would; it must neither stall
+        // checkout nor make the counters drift
+        orderService.getStatusCounters().startReconciliation(Duration.ofMillis(100));
+        long started = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        orderService.getStatusCounters().close();
+        return elapsed;
+    }
+
+    private void execute(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long orderId = operation == Operation.CREATE || operation == Operation.CATEGORY ? null : recentOrder(random);
+        if (orderId == null && operation != Operation.CATEGORY) {
+            // Nothing to read or change yet, so place an order instead
+            operation = Operation.CREATE;
+        }
+        
+        long started = System.nanoTime();
+        try {
+            switch (operation) {
+                case CREATE:
+                    Order order = orderService.createOrder(1L + random.nextInt(customerCount), randomItems(random));
+                    recentOrders.set((int) (ordersPlaced.getAndIncrement() % RECENT_ORDERS), order.getId());
+                    break;
+                case GET:
+                    orderService.getOrderById(orderId);
+                    break;
+                case CATEGORY:
+                    productService.getProductsByCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                    break;
+                case STATUS:
+                    orderService.updateOrderStatus(orderId, FORWARD_STATUSES[random.nextInt(FORWARD_STATUSES.length)]);
+                    break;
+                case CANCEL:
+                    orderService.cancelOrder(orderId);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation: " + operation);
+            }
+        } catch (IllegalArgumentException e) {
+            // Business rules: out of stock, order already delivered or cancelled
+            rejections.get(operation).increment();
+        } catch (RuntimeException e) {
+            failures.get(operation).increment();
+            synchronized (sampleFailures) {
+                if (sampleFailures.size() < 5) {
+                    sampleFailures.add(operation + ": " + e);
+                }
+            }
+        } finally {
+            latencies.get(operation).record(System.nanoTime() - started);
+        }
+    }
+
+    private Operation pickOperation() {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Operation operation : Operation.values()) {
+            pick -= weights[operation.ordinal()];
+            if (pick < 0) {
+                return operation;
+            }
+        }
+        return Operation.CREATE;
+    }
+
+    private Long recentOrder(ThreadLocalRandom random) {
+        long placed = ordersPlaced.get();
+        if (placed == 0) {
+            return null;
+        }
+        long id = recentOrders.get(random.nextInt((int) Math.min(placed, RECENT_ORDERS)));
+        return id == 0 ? null : id;
+    }
+
+    private List<OrderItem> randomItems(ThreadLocalRandom random) {
+        int count = 1 + random.nextInt(3);
+        List<OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(1L + random.nextInt(productCount));
+            item.setQuantity(1 + random.nextInt(3));
+            items.add(item);
+        }
+        return items;
+    }
+
+    private boolean report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        long totalCalls = 0;
+        long totalFailures = 0;
+        System.out.println();
+        System.out.println(String.format("%-9s %9s %9s %9s %8s %9s %9s %9s %9s",
+                "operation", "calls", "ops/s", "rejected", "errors", "p50(us)", "p99(us)", "p999(us)", "max(us)"));
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            long calls = histogram.getCount();
+            totalCalls += calls;
+            totalFailures += failures.get(operation).sum();
+            System.out.println(String.format("%-9s %9d %9.1f %9d %8d %9d %9d %9d %9d",
+                    operation.name().toLowerCase(), calls, calls / seconds, rejections.get(operation).sum(),
+                    failures.get(operation).sum(), histogram.valueAtQuantile(0.50) / 1000,
+                    histogram.valueAtQuantile(0.99) / 1000, histogram.valueAtQuantile(0.999) / 1000,
+                    histogram.getMaxNanos() / 1000));
+        }
+        System.out.println(String.format("Total: %d calls in %.1fs, %.1f ops/s, error rate %.3f%%",
+                totalCalls, seconds, totalCalls / seconds, totalCalls == 0 ? 0.0 : 100.0 * totalFailures / totalCalls));
+        for (String failure : sampleFailures) {
+            System.out.println("Sample failure: " + failure);
+        }
+        
+        List<String> violations = checkInvariants();
+        for (String violation : violations) {
+            System.out.println("INVARIANT VIOLATED: " + violation);
+        }
+        System.out.println(violations.isEmpty() ? "All invariants hold" : violations.size() + " invariant violations");
+        return violations.isEmpty() && totalFailures == 0;
+    }
+
+    private List<String> checkInvariants() {
+        List<String> violations = new ArrayList<>();
+        // Every unit missing from a product must be sitting in a live order, and stock may never go negative
+        String stockSql = "SELECT p.id, p.stock, " +
+                          "COALESCE(SUM(CASE WHEN o.status <> 'CANCELLED' THEN oi.quantity END), 0) AS sold " +
+                          "FROM products p LEFT JOIN order_items oi ON oi.product_id = p.id " +
+                          "LEFT JOIN orders o ON o.id = oi.order_id GROUP BY p.id, p.stock ORDER BY p.id";
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(stockSql)) {
+            
+            while (rs.next()) {
+                long productId = rs.getLong("id");
+                int stock = rs.getInt("stock");
+                long sold = rs.getLong("sold");
+                if (stock < 0) {
+                    violations.add("product " + productId + " oversold: stock " + stock);
+                }
+                if (stock + sold != initialStock) {
+                    violations.add("product " + productId + " stock " + stock + " + sold " + sold
+                            + " != initial " + initialStock);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error checking stock invariants", e);
+        }
+        
+        // The maintained per-status counters must match a full GROUP BY once the load has stopped
+        Map<OrderStatus, Long> counted = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            counted.put(status, orderService.countByStatus(status));
+        }
+        orderService.getStatusCounters().reconcile();
+        for (OrderStatus status : OrderStatus.values()) {
+            long actual = orderService.countByStatus(status);
+            if (counted.get(status) != actual) {
+                violations.add("status counter " + status + " was " + counted.get(status) + ", table has " + actual);
+            }
+        }
+        
+        // Each customer's stats row must hold exactly their live orders, including customers whose first
+        // orders raced to create the row
+        String statsSql = "SELECT c.id, COALESCE(s.order_count, 0) AS order_count, " +
+                          "COALESCE(s.lifetime_value, 0) AS lifetime_value, " +
+                          "(SELECT COUNT(*) FROM orders o WHERE o.customer_id = c.id AND o.status <> 'CANCELLED') AS live_count, " +
+                          "(SELECT COALESCE(SUM(o.total_amount), 0) FROM orders o " +
+                          "WHERE o.customer_id = c.id AND o.status <> 'CANCELLED') AS live_value " +
+                          "FROM customers c LEFT JOIN customer_order_stats s ON s.customer_id = c.id ORDER BY c.id";
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(statsSql)) {
+            
+            while (rs.next()) {
+                if (rs.getLong("order_count") != rs.getLong("live_count")
+                        || rs.getBigDecimal("lifetime_value").compareTo(rs.getBigDecimal("live_value")) != 0) {
+                    violations.add("customer " + rs.getLong("id") + " stats " + rs.getLong("order_count") + " orders / "
+                            + rs.getBigDecimal("lifetime_value") + ", table has " + rs.getLong("live_count")
+                            + " / " + rs.getBigDecimal("live_value"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error checking customer stats invariants", e);
+        }
+        
+        // The incremental sales rollups must land where a set-based rebuild does
+        LocalDate from = LocalDate.now().minusDays(1);
+        LocalDate to = LocalDate.now();
+        List<DailyCategorySales> incremental = analyticsService.getDailyCategoryRevenue(from, to);
+        analyticsService.rebuildRollups();
+        List<DailyCategorySales> rebuilt = analyticsService.getDailyCategoryRevenue(from, to);
+        if (!incremental.toString().equals(rebuilt.toString())) {
+            violations.add("category rollups " + incremental + " differ from rebuild " + rebuilt);
+        }
+        return violations;
+    }
+
+    private static void createSchema() {
+        new SchemaManager(DatabaseConfig.getDataSource()).migrate();
+    }
+
+    // Parses "create=40,get=25" into weights by operation; operations left out get no traffic
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[Operation.values().length];
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + entry);
+            }
+            weights[Operation.valueOf(parts[0].trim().toUpperCase()).ordinal()] = Integer.parseInt(parts[1].trim());
+        }
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("load.mix must give at least one operation a positive weight");
+        }
+        return weights;
+    }
+}